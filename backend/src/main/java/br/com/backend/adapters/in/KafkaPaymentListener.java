@@ -1,7 +1,9 @@
 package br.com.backend.adapters.in;
 
-import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
-import br.com.backend.model.payment.PaymentStatus;
+import br.com.backend.strategy.PaymentStatusChangedStrategy;
+import br.com.backend.support.EventSchemas;
+import br.com.libdomain.model.Event;
+import br.com.libdomain.router.EventRouter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -10,34 +12,54 @@ import org.springframework.stereotype.Component;
 import java.util.UUID;
 
 /**
- * Kafka inbound adapter that listens for payment events and forwards them to the use case.
- * Assumes messages are JSON with fields: eventId (UUID), paymentId (String), status (String).
+ * Kafka inbound adapter that listens for payment events and hands them off to the event router.
+ * Assumes messages are JSON with fields: eventId (UUID), paymentId (String), status (String) and
+ * optionally orderId (String), the order paid by the payment.
+ *
+ * The event is routed synchronously: the offset is only committed once the event was processed,
+ * and a routing failure or REJECT overflow is rethrown to the container's error handler, which
+ * retries the record (at-least-once). Handing the event off and returning to polling would need
+ * acks completed from other threads and partition pause/resume on overflow, and a failed record
+ * could then no longer be sought back from the poll thread, so the listener does not do it; the
+ * router still applies its overflow policy and parallelism to the routed event.
+ * Messages that cannot be parsed are logged and skipped, since redelivering them cannot help.
  */
 @Component
 public class KafkaPaymentListener {
 
-    private final ProcessPaymentEventUseCase useCase;
+    private final EventRouter router;
     private final ObjectMapper mapper = new ObjectMapper();
 
-    public KafkaPaymentListener(ProcessPaymentEventUseCase useCase) {
-        this.useCase = useCase;
+    public KafkaPaymentListener(EventRouter router) {
+        this.router = router;
     }
 
     @KafkaListener(topics = "payment-events", groupId = "backend-group")
     public void onMessage(ConsumerRecord<String, String> record) {
+        PaymentEventDto dto;
         try {
-            String payload = record.value();
-            PaymentEventDto dto = mapper.readValue(payload, PaymentEventDto.class);
-            UUID eventId = dto.getEventId();
-            String paymentId = dto.getPaymentId();
-            PaymentStatus status = PaymentStatus.valueOf(dto.getStatus());
-
-            System.out.println("[KAFKA] Received event " + eventId + " for payment " + paymentId + " -> " + status);
-            useCase.execute(eventId, paymentId, status);
+            dto = mapper.readValue(record.value(), PaymentEventDto.class);
         } catch (Exception e) {
-            System.err.println("Failed to process kafka message: " + e.getMessage());
+            System.err.println("Failed to parse kafka message: " + e.getMessage());
             e.printStackTrace();
+            return;
+        }
+        UUID eventId = dto.getEventId();
+        String paymentId = dto.getPaymentId();
+
+        System.out.println("[KAFKA] Received event " + eventId + " for payment " + paymentId + " -> " + dto.getStatus());
+        Event event = Event.of(eventId, PaymentStatusChangedStrategy.TYPE,
+                EventSchemas.PAYMENT_STATUS_CHANGED.payload()
+                        .set(EventSchemas.PAYMENT_STATUS_CHANGED_PAYMENT_ID, paymentId)
+                        .set(EventSchemas.PAYMENT_STATUS_CHANGED_STATUS, dto.getStatus())
+                        .set(EventSchemas.PAYMENT_STATUS_CHANGED_ORDER_ID, dto.getOrderId())
+                        .build());
+
+        try {
+            router.route(event);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to process kafka event " + eventId + ": " + e);
+            throw e;
         }
     }
 }
-
@@ -9,6 +9,7 @@ public class PaymentEventDto {
     private UUID eventId;
     private String paymentId;
     private String status;
+    private String orderId;
 
     public PaymentEventDto() {
     }
@@ -36,5 +37,13 @@ public class PaymentEventDto {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
 }
 
@@ -4,6 +4,7 @@ import br.com.backend.adapters.out.OrderRepository;
 import br.com.backend.adapters.out.PaymentRepository;
 import br.com.backend.adapters.out.StockRepository;
 import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
+import br.com.backend.application.usecases.ReserveOrderStockUseCase;
 import br.com.backend.model.order.Order;
 import br.com.backend.model.order.OrderStatus;
 import br.com.backend.model.payment.PaymentStatus;
@@ -35,17 +36,20 @@ public class StartupRunner implements ApplicationRunner {
     private final PaymentRepository repository;
     private final OrderRepository orderRepository;
     private final StockRepository stockRepository;
+    private final ReserveOrderStockUseCase reserveOrderStock;
 
     public StartupRunner(
             ProcessPaymentEventUseCase useCase,
             PaymentRepository repository,
             OrderRepository orderRepository,
-            StockRepository stockRepository
+            StockRepository stockRepository,
+            ReserveOrderStockUseCase reserveOrderStock
     ) {
         this.useCase = useCase;
         this.repository = repository;
         this.orderRepository = orderRepository;
         this.stockRepository = stockRepository;
+        this.reserveOrderStock = reserveOrderStock;
     }
 
     // Helper to print colored scenario headings
@@ -199,9 +203,11 @@ public class StartupRunner implements ApplicationRunner {
         String paymentId = "payment-5";
         String orderId = "order-5";
         String productId = "prod-5";
+        String accessoryId = "prod-5-acc";
 
         // initial stock
         stockRepository.save(new Stock(productId, 10));
+        stockRepository.save(new Stock(accessoryId, 3));
 
         // payment
         useCase.execute(UUID.randomUUID(), paymentId, PaymentStatus.AUTHORIZED);
@@ -209,23 +215,23 @@ public class StartupRunner implements ApplicationRunner {
         // create order and confirm
         Order order = new Order(orderId);
         order.addItem(productId, 2);
+        order.addItem(accessoryId, 1);
         order.applyStatus(OrderStatus.CONFIRMED);
         orderRepository.save(order);
 
-        // reserve stock
-        stockRepository.findById(productId).ifPresent(s -> {
-            boolean ok = s.reserve(2);
-            if (ok) {
-                stockRepository.save(s);
-                System.out.println("Stock reserved for order " + orderId);
-            } else {
-                System.out.println("Insufficient stock for order " + orderId);
-            }
-        });
+        // reserve every line of the order, or none
+        if (reserveOrderStock.reserve(order)) {
+            System.out.println("Stock reserved for order " + orderId);
+            // payment already authorized: the reservation is final and no longer expires
+            reserveOrderStock.settle(orderId);
+        } else {
+            System.out.println("Insufficient stock for order " + orderId);
+        }
 
         logFinalState(paymentId);
         logOrderState(orderId);
         logStockState(productId);
+        logStockState(accessoryId);
     }
 
     /* =======================================================
@@ -245,22 +251,15 @@ public class StartupRunner implements ApplicationRunner {
          order.applyStatus(OrderStatus.CONFIRMED);
          orderRepository.save(order);
 
-         stockRepository.findById(productId).ifPresent(s -> {
-             boolean ok = s.reserve(1);
-             if (ok) {
-                 stockRepository.save(s);
-                 System.out.println("Reserved 1 unit for " + orderId);
-             }
-         });
+         if (reserveOrderStock.reserve(order)) {
+             System.out.println("Reserved 1 unit for " + orderId);
+         }
 
          // cancel order and release
          order.applyStatus(OrderStatus.CANCELLED);
          orderRepository.save(order);
-         stockRepository.findById(productId).ifPresent(s -> {
-             s.release(1);
-             stockRepository.save(s);
-             System.out.println("Released 1 unit for cancelled order " + orderId);
-         });
+         reserveOrderStock.release(order);
+         System.out.println("Released 1 unit for cancelled order " + orderId);
 
          logOrderState(orderId);
          logStockState(productId);
@@ -0,0 +1,79 @@
+package br.com.backend.adapters.out;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over 128-bit keys (the two halves of a UUID).
+ * Bits are set with a CAS per word that bails out as soon as the bit is already set,
+ * so concurrent writers never block each other and readers never write.
+ * The k probe positions come from double hashing (h1 + i * h2) of one 64-bit mix.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashes;
+
+    /**
+     * @param expectedInsertions insertions for which {@code falsePositiveRate} holds
+     * @param falsePositiveRate  target false positive probability, in (0, 1)
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        double optimalBits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        // round up to a power of two so probing is a mask instead of a modulo
+        long bits = Long.highestOneBit(Math.max(64L, (long) Math.ceil(optimalBits) - 1)) << 1;
+        if (bits > (long) Integer.MAX_VALUE * Long.SIZE) {
+            throw new IllegalArgumentException("Bloom filter too large for " + expectedInsertions + " insertions");
+        }
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.bitMask = bits - 1;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    }
+
+    void put(long high, long low) {
+        long hash = mix(high, low);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} if the key was certainly never added
+     */
+    boolean mightContain(long high, long low) {
+        long hash = mix(high, low);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long high, long low) {
+        long hash = high * 0x9E3779B97F4A7C15L ^ low;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
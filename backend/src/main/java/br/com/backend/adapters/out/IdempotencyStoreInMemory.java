@@ -0,0 +1,156 @@
+package br.com.backend.adapters.out;
+
+import br.com.libdomain.ports.IdempotencyStore;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory {@link IdempotencyStore}: a lock-free Bloom filter in front of an exact,
+ * time-bounded map.
+ *
+ * Most lookups are for new events, and those are answered by the Bloom filter alone
+ * (a few array reads, no allocation). Only a "maybe" goes to the exact map, which keeps
+ * each event ID for {@code ttl} and evicts expired entries in insertion order as new
+ * ones are recorded.
+ *
+ * Bloom filters cannot forget, so two generations are kept and rotated every {@code ttl}:
+ * an ID recorded in generation G is still covered while G is the current or the previous
+ * generation, i.e. for at least {@code ttl}. Memory stays bounded by the insertion rate.
+ */
+public class IdempotencyStoreInMemory implements IdempotencyStore {
+
+    // expired entries removed per markProcessed call, keeps eviction amortized O(1)
+    private static final int EVICTIONS_PER_MARK = 8;
+
+    private final long ttlMillis;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Generations> generations;
+    private final Map<UUID, Long> recordedAt = new ConcurrentHashMap<>();
+    private final Queue<Recorded> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * @param ttl                how long a processed event ID is remembered
+     * @param expectedInsertions event IDs recorded per {@code ttl}, sizes each Bloom generation
+     * @param falsePositiveRate  Bloom filter false positive target
+     */
+    public IdempotencyStoreInMemory(Duration ttl, long expectedInsertions, double falsePositiveRate) {
+        this(ttl, expectedInsertions, falsePositiveRate, System::currentTimeMillis);
+    }
+
+    IdempotencyStoreInMemory(Duration ttl, long expectedInsertions, double falsePositiveRate, LongSupplier clock) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.generations = new AtomicReference<>(new Generations(newGeneration(now), newGeneration(now)));
+    }
+
+    @Override
+    public boolean isProcessed(UUID eventId) {
+        long high = eventId.getMostSignificantBits();
+        long low = eventId.getLeastSignificantBits();
+        Generations current = generations(clock.getAsLong());
+
+        if (!current.active.filter.mightContain(high, low) && !current.previous.filter.mightContain(high, low)) {
+            filtered.increment();
+            return false;
+        }
+
+        Long at = recordedAt.get(eventId);
+        if (at == null || clock.getAsLong() - at >= ttlMillis) {
+            return false;
+        }
+        duplicates.increment();
+        return true;
+    }
+
+    @Override
+    public void markProcessed(UUID eventId) {
+        long now = clock.getAsLong();
+        generations(now).active.filter.put(eventId.getMostSignificantBits(), eventId.getLeastSignificantBits());
+        recordedAt.put(eventId, now);
+        insertionOrder.add(new Recorded(eventId, now));
+        evictExpired(now);
+    }
+
+    /**
+     * @return lookups answered by the Bloom filter alone
+     */
+    public long filtered() {
+        return filtered.sum();
+    }
+
+    /**
+     * @return lookups that found an already processed event
+     */
+    public long duplicates() {
+        return duplicates.sum();
+    }
+
+    /**
+     * @return event IDs currently held by the exact store
+     */
+    public int size() {
+        return recordedAt.size();
+    }
+
+    private void evictExpired(long now) {
+        for (int i = 0; i < EVICTIONS_PER_MARK; i++) {
+            Recorded oldest = insertionOrder.peek();
+            if (oldest == null || now - oldest.at < ttlMillis) {
+                return;
+            }
+            if (insertionOrder.remove(oldest)) {
+                // a newer markProcessed for the same ID keeps its own entry
+                recordedAt.remove(oldest.eventId, oldest.at);
+            }
+        }
+    }
+
+    private Generations generations(long now) {
+        while (true) {
+            Generations current = generations.get();
+            long age = now - current.active.startedAt;
+            if (age < ttlMillis) {
+                return current;
+            }
+            // after two full periods of silence the active generation is stale as well
+            Generation previous = age < 2 * ttlMillis ? current.active : newGeneration(now);
+            Generations rotated = new Generations(newGeneration(now), previous);
+            if (generations.compareAndSet(current, rotated)) {
+                return rotated;
+            }
+        }
+    }
+
+    private Generation newGeneration(long now) {
+        return new Generation(new BloomFilter(expectedInsertions, falsePositiveRate), now);
+    }
+
+    private record Generation(BloomFilter filter, long startedAt) {
+    }
+
+    private record Generations(Generation active, Generation previous) {
+    }
+
+    private record Recorded(UUID eventId, long at) {
+    }
+}
@@ -1,8 +1,21 @@
 package br.com.backend.adapters.out;
 
 import br.com.backend.model.order.Order;
+import br.com.backend.model.order.OrderStatus;
 import br.com.libdomain.ports.RepositoryPort;
 
+import java.util.List;
+
 public interface OrderRepository extends RepositoryPort<Order, String> {
+
+    /**
+     * Orders whose last saved status is the given one, served from a secondary index in O(result).
+     */
+    List<Order> findByStatus(OrderStatus status);
+
+    /**
+     * Number of orders in the given status, in O(1); may be off by the writes in flight.
+     */
+    long countByStatus(OrderStatus status);
 }
 
@@ -1,16 +1,48 @@
 package br.com.backend.adapters.out;
 
 import br.com.backend.model.order.Order;
+import br.com.backend.model.order.OrderStatus;
+import br.com.libdomain.ports.BulkSaveResult;
+import br.com.libintegration.journal.RecordBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+/**
+ * Com o journal habilitado, cada gravação registra o estado atual do pedido; a inicialização
+ * carrega o último snapshot e reaplica a cauda do journal, e o último registro de cada id
+ * prevalece. Como as entidades são mutáveis, o snapshot lê cada uma dentro de um
+ * {@code computeIfPresent}, bloqueando só aquela chave.
+ */
 @Component
 public class OrderRepositoryInMemory implements OrderRepository {
 
+    static final String STORE = "orders";
+
     private final Map<String, Order> store = new ConcurrentHashMap<>();
+    private final StatusIndex<OrderStatus> statusIndex = new StatusIndex<>(OrderStatus.class);
+    private final StoreJournal journal;
+
+    public OrderRepositoryInMemory() {
+        this(RepositoryJournals.disabled());
+    }
+
+    @Autowired
+    public OrderRepositoryInMemory(RepositoryJournals journals) {
+        this.journal = journals.attach(STORE, this::restore, this::writeSnapshot);
+    }
 
     @Override
     public Optional<Order> findById(String id) {
@@ -20,7 +52,158 @@ public class OrderRepositoryInMemory implements OrderRepository {
 
     @Override
     public void save(Order entity) {
-        store.put(entity.getOrderId(), entity);
+        long[] token = new long[1];
+        int epoch = journal.enter();
+        try {
+            store.compute(entity.getOrderId(), (id, current) -> {
+                token[0] = append(entity);
+                statusIndex.put(id, entity.getStatus());
+                return entity;
+            });
+        } finally {
+            journal.exit(epoch);
+        }
+        journal.commit(token[0]);
+    }
+
+    @Override
+    public Map<String, Order> findAllById(Collection<String> ids) {
+        Map<String, Order> found = new LinkedHashMap<>(Math.max(16, ids.size() * 2));
+        for (String id : ids) {
+            Order o = store.get(id);
+            if (o != null) {
+                found.put(id, o);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Percorre apenas os ids do índice de status. Pedidos alterados e ainda não gravados
+     * continuam indexados pelo último status salvo; os que já mudaram são descartados.
+     */
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        List<Order> found = new ArrayList<>();
+        for (String id : statusIndex.idsWith(status)) {
+            Order o = store.get(id);
+            if (o != null && o.getStatus() == status) {
+                found.add(o);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long countByStatus(OrderStatus status) {
+        return statusIndex.count(status);
     }
-}
 
+    /**
+     * Pedidos não têm verificação de versão: cada um é gravado incondicionalmente, como em
+     * {@link #save(Order)}. Uma falha de gravação (ex: id nulo, erro do journal) é registrada no
+     * resultado e o restante do lote continua; o que já foi gravado é confirmado no journal.
+     */
+    @Override
+    public BulkSaveResult<Order> saveAll(Collection<Order> entities) {
+        List<Order> saved = new ArrayList<>(entities.size());
+        List<BulkSaveResult.Failure<Order>> failures = new ArrayList<>();
+        long[] token = new long[1];
+        try {
+            for (Order entity : entities) {
+                int epoch = journal.enter();
+                try {
+                    store.compute(entity.getOrderId(), (id, current) -> {
+                        token[0] = append(entity);
+                        statusIndex.put(id, entity.getStatus());
+                        return entity;
+                    });
+                    saved.add(entity);
+                } catch (RuntimeException e) {
+                    failures.add(new BulkSaveResult.Failure<>(entity, e));
+                } finally {
+                    journal.exit(epoch);
+                }
+            }
+        } finally {
+            journal.commit(token[0]);
+        }
+        return new BulkSaveResult<>(saved, failures);
+    }
+
+    /**
+     * Aplica o {@code mutator} sobre a instância guardada (a mesma que {@link #findById} devolve),
+     * sem cópia, dentro do {@code compute} do id. Por isso o {@code mutator} que retorna
+     * {@code false} não pode ter alterado o pedido: nada é gravado no journal nesse caso, e uma
+     * alteração parcial ficaria visível sem nunca ser persistida. Os métodos de domínio usados
+     * aqui ({@code order -> order.applyStatus(target)}) já rejeitam sem alterar nada.
+     */
+    @Override
+    public boolean update(String id, Function<String, Order> factory, Predicate<Order> mutator) {
+        boolean[] applied = new boolean[1];
+        long[] token = new long[1];
+        int epoch = journal.enter();
+        try {
+            store.compute(id, (key, current) -> {
+                Order entity = current != null ? current : factory.apply(key);
+                applied[0] = mutator.test(entity);
+                if (!applied[0]) {
+                    return current;
+                }
+                token[0] = append(entity);
+                statusIndex.put(id, entity.getStatus());
+                return entity;
+            });
+        } finally {
+            journal.exit(epoch);
+        }
+        journal.commit(token[0]);
+        return applied[0];
+    }
+
+    private long append(Order entity) {
+        if (!journal.isEnabled()) {
+            return 0;
+        }
+        return journal.append(encode(entity, new RecordBuffer(64 + entity.getItems().size() * 32)));
+    }
+
+    /**
+     * Registro do journal e do snapshot: {@code [id][status][n][n x (productId, qty)]}.
+     */
+    private static RecordBuffer encode(Order entity, RecordBuffer record) {
+        Map<String, Integer> items = entity.getItems();
+        record.putString(entity.getOrderId())
+                .putByte(entity.getStatus().ordinal())
+                .putInt(items.size());
+        items.forEach((productId, qty) -> record.putString(productId).putInt(qty));
+        return record;
+    }
+
+    private void writeSnapshot(Consumer<ByteBuffer> sink) {
+        RecordBuffer record = new RecordBuffer(1024);
+        for (String id : store.keySet()) {
+            boolean[] present = new boolean[1];
+            store.computeIfPresent(id, (key, entity) -> {
+                encode(entity, record.clear());
+                present[0] = true;
+                return entity;
+            });
+            if (present[0]) {
+                sink.accept(record.flip());
+            }
+        }
+    }
+
+    private void restore(ByteBuffer record) {
+        String orderId = RecordBuffer.getString(record);
+        OrderStatus status = OrderStatus.values()[record.get()];
+        int count = record.getInt();
+        Map<String, Integer> items = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            items.put(RecordBuffer.getString(record), record.getInt());
+        }
+        store.put(orderId, Order.restore(orderId, status, items));
+        statusIndex.put(orderId, status);
+    }
+}
@@ -1,13 +1,25 @@
 package br.com.backend.adapters.out;
 
 import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentStatus;
 import br.com.libdomain.ports.RepositoryPort;
 
+import java.util.List;
+
 /**
  * Repository for the Payment aggregate.
  * Implements the generic RepositoryPort interface for CRUD operations.
  */
 public interface PaymentRepository extends RepositoryPort<Payment, String> {
-    // Domain-specific methods can be added here if needed
-    // e.g. findByStatus(PaymentStatus status)
+
+    /**
+     * Payments currently in the given status, served from a secondary index in O(result)
+     * (e.g. reconciliation of payments stuck in AUTHORIZED).
+     */
+    List<Payment> findByStatus(PaymentStatus status);
+
+    /**
+     * Number of payments in the given status, in O(1); may be off by the writes in flight.
+     */
+    long countByStatus(PaymentStatus status);
 }
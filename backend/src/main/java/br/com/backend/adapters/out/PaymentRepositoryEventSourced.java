@@ -0,0 +1,272 @@
+package br.com.backend.adapters.out;
+
+import br.com.backend.model.payment.EventRetention;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentChange;
+import br.com.backend.model.payment.PaymentStatus;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Repositório de pagamentos event-sourced, totalmente local.
+ *
+ * Cada pagamento é um stream append-only das transições aceitas por {@link Payment#applyEvent}
+ * ({@code eventId}, {@code targetStatus}), guardado em arrays primitivos. A cada
+ * {@code snapshotEvery} eventos o estado é fotografado; carregar um pagamento é copiar o último
+ * snapshot (O(1), o histórico é persistente) e reaplicar apenas a cauda do stream.
+ *
+ * A versão do pagamento é o tamanho do stream. Escritas apenas acrescentam eventos, sob o lock
+ * do {@code compute} do stream; leituras não usam lock.
+ *
+ * Os streams vivem só em memória: este repositório não grava no journal, e a configuração
+ * recusa iniciar com o journal habilitado junto dele. {@code saveAll} usa o laço padrão do
+ * port, já que cada stream é gravado por um {@code compute} próprio e não há commit a agrupar.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment", name = "repository", havingValue = "event-sourced")
+public class PaymentRepositoryEventSourced implements PaymentRepository {
+
+    public static final int DEFAULT_SNAPSHOT_EVERY = 100;
+
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    private final Map<String, EventStream> streams = new ConcurrentHashMap<>();
+    private final StatusIndex<PaymentStatus> statusIndex = new StatusIndex<>(PaymentStatus.class);
+    private final int snapshotEvery;
+    private final EventRetention retention;
+
+    public PaymentRepositoryEventSourced(int snapshotEvery) {
+        this(snapshotEvery, EventRetention.unbounded());
+    }
+
+    /**
+     * @param retention retenção dos eventIds dos pagamentos reconstruídos a partir do stream
+     */
+    @Autowired
+    public PaymentRepositoryEventSourced(
+            @Value("${payment.event-sourcing.snapshot-every:" + DEFAULT_SNAPSHOT_EVERY + "}") int snapshotEvery,
+            EventRetention retention) {
+        if (snapshotEvery <= 0) {
+            throw new IllegalArgumentException("snapshotEvery must be positive: " + snapshotEvery);
+        }
+        this.snapshotEvery = snapshotEvery;
+        this.retention = retention;
+    }
+
+    @Override
+    public Optional<Payment> findById(String paymentId) {
+        EventStream stream = streams.get(paymentId);
+        return stream == null ? Optional.empty() : Optional.of(stream.load());
+    }
+
+    @Override
+    public Map<String, Payment> findAllById(Collection<String> paymentIds) {
+        Map<String, Payment> found = new LinkedHashMap<>(Math.max(16, paymentIds.size() * 2));
+        for (String paymentId : paymentIds) {
+            EventStream stream = streams.get(paymentId);
+            if (stream != null) {
+                found.put(paymentId, stream.load());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Acrescenta as mudanças pendentes do pagamento ao stream. A versão esperada é o tamanho
+     * do stream quando o pagamento foi carregado.
+     */
+    @Override
+    public void save(Payment payment) {
+        streams.compute(payment.getPaymentId(), (id, stream) -> {
+            long current = stream == null ? 0 : stream.length;
+            if (payment.getVersion() != current) {
+                throw new OptimisticLockException("Version conflict for payment " + id);
+            }
+            PaymentStatus previous = stream != null ? stream.status() : null;
+            EventStream target = stream != null ? stream : new EventStream(id, initialStatusOf(payment), retention);
+            target.append(payment, snapshotEvery);
+            statusIndex.move(id, previous, target.status());
+            return target;
+        });
+    }
+
+    /**
+     * Carrega o estado, aplica o {@code mutator} e acrescenta as mudanças que ele produziu,
+     * tudo dentro de um único {@code compute}. Apenas transições aceitas por
+     * {@link Payment#applyEvent} são persistidas.
+     */
+    @Override
+    public boolean update(String paymentId, Function<String, Payment> factory, Predicate<Payment> mutator) {
+        boolean[] applied = new boolean[1];
+        streams.compute(paymentId, (id, stream) -> {
+            Payment payment = stream != null ? stream.load() : factory.apply(id);
+            if (!mutator.test(payment)) {
+                return stream;
+            }
+            PaymentStatus previous = stream != null ? stream.status() : null;
+            EventStream target = stream != null ? stream : new EventStream(id, initialStatusOf(payment), retention);
+            target.append(payment, snapshotEvery);
+            statusIndex.move(id, previous, target.status());
+            applied[0] = true;
+            return target;
+        });
+        return applied[0];
+    }
+
+    /**
+     * Carrega apenas os pagamentos indexados no status (snapshot + cauda de cada stream).
+     */
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        List<Payment> found = new ArrayList<>();
+        for (String paymentId : statusIndex.idsWith(status)) {
+            EventStream stream = streams.get(paymentId);
+            if (stream != null && stream.status() == status) {
+                found.add(stream.load());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long countByStatus(PaymentStatus status) {
+        return statusIndex.count(status);
+    }
+
+    /**
+     * Trilha de auditoria do pagamento.
+     *
+     * @return transições aceitas, da mais antiga para a mais nova
+     */
+    public List<PaymentChange> eventsOf(String paymentId) {
+        EventStream stream = streams.get(paymentId);
+        if (stream == null) {
+            return List.of();
+        }
+        List<PaymentChange> events = new ArrayList<>();
+        stream.forEach(0, events::add);
+        return events;
+    }
+
+    /**
+     * Reaplica todos os streams, por exemplo para reconstruir um read model.
+     */
+    public void replayAll(BiConsumer<String, PaymentChange> consumer) {
+        streams.forEach((paymentId, stream) -> stream.forEach(0, change -> consumer.accept(paymentId, change)));
+    }
+
+    private static PaymentStatus initialStatusOf(Payment payment) {
+        // with pending changes the status comes from the last one; the initial status only matters for empty streams
+        return payment.getUncommittedChanges().isEmpty() ? payment.getStatus() : PaymentStatus.CREATED;
+    }
+
+    private record Snapshot(Payment payment, int length) {
+    }
+
+    /**
+     * Stream de um pagamento. Escritas acontecem sob o lock do {@code compute}; leitores leem
+     * {@code snapshot} e depois {@code length} (voláteis) e só então os arrays, que nunca são
+     * alterados abaixo de {@code length}.
+     */
+    private static final class EventStream {
+
+        private final String paymentId;
+        private final PaymentStatus initialStatus;
+        private final EventRetention retention;
+        private long[] eventHigh = new long[4];
+        private long[] eventLow = new long[4];
+        private byte[] targets = new byte[4];
+        private volatile int length;
+        private volatile Snapshot snapshot;
+
+        EventStream(String paymentId, PaymentStatus initialStatus, EventRetention retention) {
+            this.paymentId = paymentId;
+            this.initialStatus = initialStatus;
+            this.retention = retention;
+        }
+
+        Payment load() {
+            Snapshot base = snapshot;
+            int end = length;
+            Payment payment;
+            int from;
+            if (base != null) {
+                payment = base.payment().copy();
+                from = base.length();
+            } else {
+                payment = new Payment(paymentId, initialStatus, retention);
+                from = 0;
+            }
+            long[] high = eventHigh;
+            long[] low = eventLow;
+            byte[] status = targets;
+            for (int i = from; i < end; i++) {
+                payment.replay(new UUID(high[i], low[i]), STATUSES[status[i]]);
+            }
+            payment.restoreVersion(end);
+            return payment;
+        }
+
+        /**
+         * Status após o último evento do stream, sem reconstruir o pagamento.
+         */
+        PaymentStatus status() {
+            int end = length;
+            return end == 0 ? initialStatus : STATUSES[targets[end - 1]];
+        }
+
+        void append(Payment payment, int snapshotEvery) {
+            List<PaymentChange> changes = payment.getUncommittedChanges();
+            int size = length;
+            int required = size + changes.size();
+            if (required > targets.length) {
+                int capacity = Math.max(required, targets.length * 2);
+                eventHigh = Arrays.copyOf(eventHigh, capacity);
+                eventLow = Arrays.copyOf(eventLow, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            for (PaymentChange change : changes) {
+                eventHigh[size] = change.eventId().getMostSignificantBits();
+                eventLow[size] = change.eventId().getLeastSignificantBits();
+                targets[size] = (byte) change.targetStatus().ordinal();
+                size++;
+            }
+            length = size;
+
+            Snapshot base = snapshot;
+            if (size - (base != null ? base.length() : 0) >= snapshotEvery) {
+                Payment image = payment.copy();
+                image.markCommitted();
+                image.restoreVersion(size);
+                snapshot = new Snapshot(image, size);
+            }
+        }
+
+        void forEach(int from, Consumer<PaymentChange> action) {
+            int end = length;
+            long[] high = eventHigh;
+            long[] low = eventLow;
+            byte[] status = targets;
+            for (int i = from; i < end; i++) {
+                action.accept(new PaymentChange(new UUID(high[i], low[i]), STATUSES[status[i]]));
+            }
+        }
+    }
+}
@@ -1,22 +1,71 @@
 package br.com.backend.adapters.out;
 
+import br.com.backend.model.payment.EventRetention;
 import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentChange;
+import br.com.backend.model.payment.PaymentStatus;
+import br.com.libdomain.ports.BulkSaveResult;
+import br.com.libintegration.journal.RecordBuffer;
 import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Implementação em memória do repositório de pagamentos.
  * Utiliza um ConcurrentHashMap para armazenar os pagamentos,
  * permitindo acesso concorrente seguro.
+ *
+ * Os pagamentos armazenados são snapshots imutáveis: nunca são alterados depois de gravados.
+ * Como o histórico de eventos é persistente, {@link Payment#copy()} é O(1); leituras não
+ * precisam de lock e escritas alocam apenas o caminho alterado do histórico. Um índice por
+ * status ({@link StatusIndex}) é mantido dentro do mesmo {@code compute} de cada gravação.
+ *
+ * Com o journal habilitado ({@link RepositoryJournals}), cada gravação registra as transições
+ * novas dentro do {@code compute} (na ordem das versões) e espera o fsync fora dele; na
+ * inicialização o último snapshot é carregado e só a cauda do journal é reaplicada. Como os
+ * valores são imutáveis, o snapshot percorre o mapa sem lock.
  */
 @Component
+@ConditionalOnProperty(prefix = "payment", name = "repository", havingValue = "in-memory", matchIfMissing = true)
 public class PaymentRepositoryInMemory implements PaymentRepository {
 
+    static final String STORE = "payments";
+
     private final Map<String, Payment> store = new ConcurrentHashMap<>();
+    private final StatusIndex<PaymentStatus> statusIndex = new StatusIndex<>(PaymentStatus.class);
+    private final EventRetention retention;
+    private final StoreJournal journal;
+
+    public PaymentRepositoryInMemory() {
+        this(RepositoryJournals.disabled());
+    }
+
+    public PaymentRepositoryInMemory(RepositoryJournals journals) {
+        this(journals, EventRetention.unbounded());
+    }
+
+    /**
+     * @param retention retenção dos eventIds dos pagamentos reconstruídos a partir do journal
+     */
+    @Autowired
+    public PaymentRepositoryInMemory(RepositoryJournals journals, EventRetention retention) {
+        this.retention = retention;
+        this.journal = journals.attach(STORE, this::restore, this::writeSnapshot);
+    }
 
     @Override
     public Optional<Payment> findById(String paymentId) {
@@ -28,17 +77,200 @@ public class PaymentRepositoryInMemory implements PaymentRepository {
 
     @Override
     public void save(Payment payment) {
-        store.compute(payment.getPaymentId(), (id, current) -> {
+        long[] token = new long[1];
+        int epoch = journal.enter();
+        try {
+            store.compute(payment.getPaymentId(), (id, current) -> {
 
-            if (current != null && current.getVersion() != payment.getVersion()) {
-                throw new OptimisticLockException(
-                        "Version conflict for payment " + id
-                );
+                if (current != null && current.getVersion() != payment.getVersion()) {
+                    throw new OptimisticLockException(
+                            "Version conflict for payment " + id
+                    );
+                }
+
+                Payment toPersist = payment.copy();
+                toPersist.incrementVersion();
+                token[0] = append(toPersist);
+                toPersist.markCommitted();
+                statusIndex.move(id, current != null ? current.getStatus() : null, toPersist.getStatus());
+                return toPersist;
+            });
+        } finally {
+            journal.exit(epoch);
+        }
+        journal.commit(token[0]);
+    }
+
+    @Override
+    public Map<String, Payment> findAllById(Collection<String> paymentIds) {
+        Map<String, Payment> found = new LinkedHashMap<>(Math.max(16, paymentIds.size() * 2));
+        for (String paymentId : paymentIds) {
+            Payment payment = store.get(paymentId);
+            if (payment != null) {
+                found.put(paymentId, payment.copy());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Percorre apenas os ids do índice de status; entradas em trânsito são descartadas
+     * conferindo o status do snapshot armazenado.
+     */
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        List<Payment> found = new ArrayList<>();
+        for (String paymentId : statusIndex.idsWith(status)) {
+            Payment payment = store.get(paymentId);
+            if (payment != null && payment.getStatus() == status) {
+                found.add(payment.copy());
             }
+        }
+        return found;
+    }
+
+    @Override
+    public long countByStatus(PaymentStatus status) {
+        return statusIndex.count(status);
+    }
+
+    /**
+     * Mesma verificação de versão de {@link #save(Payment)}, atômica por pagamento.
+     * Um conflito ou uma falha de gravação é registrado no resultado em vez de lançado, e o
+     * restante do lote continua sendo persistido.
+     */
+    @Override
+    public BulkSaveResult<Payment> saveAll(Collection<Payment> payments) {
+        List<Payment> saved = new ArrayList<>(payments.size());
+        List<BulkSaveResult.Failure<Payment>> failures = new ArrayList<>();
+        boolean[] conflict = new boolean[1];
+        long[] token = new long[1];
+
+        try {
+            for (Payment payment : payments) {
+                conflict[0] = false;
+                int epoch = journal.enter();
+                try {
+                    store.compute(payment.getPaymentId(), (id, current) -> {
+                        if (current != null && current.getVersion() != payment.getVersion()) {
+                            conflict[0] = true;
+                            return current;
+                        }
+                        Payment toPersist = payment.copy();
+                        toPersist.incrementVersion();
+                        token[0] = append(toPersist);
+                        toPersist.markCommitted();
+                        statusIndex.move(id, current != null ? current.getStatus() : null, toPersist.getStatus());
+                        return toPersist;
+                    });
+                } catch (RuntimeException e) {
+                    failures.add(new BulkSaveResult.Failure<>(payment, e));
+                    continue;
+                } finally {
+                    journal.exit(epoch);
+                }
+
+                if (conflict[0]) {
+                    failures.add(new BulkSaveResult.Failure<>(payment, new OptimisticLockException(
+                            "Version conflict for payment " + payment.getPaymentId())));
+                } else {
+                    saved.add(payment);
+                }
+            }
+        } finally {
+            // um único fsync cobre o lote inteiro, inclusive o que foi gravado antes de uma falha
+            journal.commit(token[0]);
+        }
+        return new BulkSaveResult<>(saved, failures);
+    }
+
+    /**
+     * Aplica o {@code mutator} sobre uma cópia O(1) do snapshot armazenado dentro de um único
+     * {@code compute}: sem conflito de versão entre threads concorrentes, que são serializadas
+     * pelo próprio mapa. A versão só avança se houver alteração, e um pagamento novo só é
+     * inserido se o {@code mutator} o alterar.
+     */
+    @Override
+    public boolean update(String paymentId, Function<String, Payment> factory, Predicate<Payment> mutator) {
+        boolean[] applied = new boolean[1];
+        long[] token = new long[1];
+        int epoch = journal.enter();
+        try {
+            store.compute(paymentId, (id, current) -> {
+                Payment payment = current != null ? current.copy() : factory.apply(id);
+                if (!mutator.test(payment)) {
+                    return current;
+                }
+                payment.incrementVersion();
+                token[0] = append(payment);
+                payment.markCommitted();
+                statusIndex.move(id, current != null ? current.getStatus() : null, payment.getStatus());
+                applied[0] = true;
+                return payment;
+            });
+        } finally {
+            journal.exit(epoch);
+        }
+        journal.commit(token[0]);
+        return applied[0];
+    }
+
+    /**
+     * Registro: {@code [id][status][versão][n][n x (eventId, status alvo)]}. No journal leva as
+     * transições ainda não confirmadas; no snapshot, todo o histórico de eventos processados.
+     */
+    private long append(Payment payment) {
+        if (!journal.isEnabled()) {
+            return 0;
+        }
+        List<PaymentChange> changes = payment.getUncommittedChanges();
+        RecordBuffer record = new RecordBuffer(64 + changes.size() * 17)
+                .putString(payment.getPaymentId())
+                .putByte(payment.getStatus().ordinal())
+                .putLong(payment.getVersion())
+                .putInt(changes.size());
+        for (PaymentChange change : changes) {
+            record.putUuid(change.eventId()).putByte(change.targetStatus().ordinal());
+        }
+        return journal.append(record);
+    }
+
+    private void writeSnapshot(Consumer<ByteBuffer> sink) {
+        RecordBuffer record = new RecordBuffer(1024);
+        for (Payment payment : store.values()) {
+            int status = payment.getStatus().ordinal();
+            record.clear()
+                    .putString(payment.getPaymentId())
+                    .putByte(status)
+                    .putLong(payment.getVersion())
+                    .putInt(payment.getProcessedEventCount());
+            payment.forEachProcessedEventId(eventId -> record.putUuid(eventId).putByte(status));
+            sink.accept(record.flip());
+        }
+    }
+
+    /**
+     * Aplica um registro do snapshot ou do journal. Registros com versão já coberta pelo snapshot
+     * (escritos durante a sua geração) são ignorados.
+     */
+    private void restore(ByteBuffer record) {
+        PaymentStatus[] statuses = PaymentStatus.values();
+        String paymentId = RecordBuffer.getString(record);
+        PaymentStatus status = statuses[record.get()];
+        long version = record.getLong();
+        int changes = record.getInt();
 
-            Payment toPersist = payment.copy();
-            toPersist.incrementVersion();
-            return toPersist;
-        });
+        Payment current = store.get(paymentId);
+        if (current != null && current.getVersion() >= version) {
+            return;
+        }
+        Payment payment = current != null ? current.copy() : new Payment(paymentId, status, retention);
+        for (int i = 0; i < changes; i++) {
+            UUID eventId = RecordBuffer.getUuid(record);
+            payment.replay(eventId, statuses[record.get()]);
+        }
+        payment.restoreVersion(version);
+        store.put(paymentId, payment);
+        statusIndex.move(paymentId, current != null ? current.getStatus() : null, payment.getStatus());
     }
 }
@@ -0,0 +1,529 @@
+package br.com.backend.adapters.out;
+
+import br.com.backend.model.payment.EventRetention;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentChange;
+import br.com.backend.model.payment.PaymentStatus;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Repositório de pagamentos fora do heap, para dezenas de milhões de agregados sem pressão no GC.
+ *
+ * Cada pagamento ocupa um registro de layout fixo em slabs de {@link ByteBuffer} diretos:
+ * {@code [stamp][hash do id][tamanho do id][status][n][início][id UTF-8][janela de eventIds]}.
+ * A janela de deduplicação guarda os últimos {@code dedupWindow} eventIds em um anel, o mesmo
+ * que {@link EventRetention#lastEvents(int)}. Um índice de endereçamento aberto (um {@code long}
+ * por entrada: 32 bits altos do hash + slot) localiza o registro; entradas só são inseridas,
+ * por CAS, e a capacidade é fixa.
+ *
+ * O {@code stamp} é {@code versão << 1 | travado}: {@link #save(Payment)} faz um CAS que só
+ * trava o registro se a versão armazenada for a carregada (senão, conflito otimista), escreve e
+ * publica a versão seguinte. Leitores não travam: releem o stamp após copiar o registro e
+ * repetem se ele mudou (seqlock).
+ *
+ * Um slot só é reservado para um pagamento que será de fato gravado: em {@link #update} o
+ * {@code mutator} de um pagamento novo roda antes da reserva, e o slot entra no índice já travado.
+ * Quem perde a corrida de inserção do mesmo id devolve o slot a uma lista livre e aplica sobre o
+ * registro vencedor, de modo que rejeições e corridas nunca consomem capacidade.
+ *
+ * Só os objetos devolvidos ao chamador vivem no heap. {@link #findByStatus} percorre os
+ * registros (memória contígua, sem objetos); {@link #countByStatus} usa contadores.
+ *
+ * Os registros vivem só em memória: este repositório não grava no journal, e a configuração
+ * recusa iniciar com o journal habilitado junto dele. {@code findAllById} e {@code saveAll}
+ * usam o laço padrão do port: cada registro é lido ou gravado por um CAS próprio, sem ida e
+ * volta nem commit a agrupar.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment", name = "repository", havingValue = "off-heap")
+public class PaymentRepositoryOffHeap implements PaymentRepository {
+
+    public static final long DEFAULT_CAPACITY = 1_000_000;
+    public static final int DEFAULT_DEDUP_WINDOW = 32;
+    public static final int DEFAULT_MAX_ID_BYTES = 64;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final long MAX_CAPACITY = 1L << 26;
+    private static final int MAX_SLAB_BYTES = 1 << 30;
+    private static final long TAG_MASK = 0xFFFFFFFF00000000L;
+
+    // record layout
+    private static final int HASH = 8;
+    private static final int ID_LENGTH = 16;
+    private static final int STATUS = 18;
+    private static final int RING_COUNT = 20;
+    private static final int RING_HEAD = 24;
+    private static final int ID = 28;
+    private static final int EVENT_BYTES = 2 * Long.BYTES;
+
+    private final long capacity;
+    private final int dedupWindow;
+    private final int maxIdBytes;
+    private final int ringOffset;
+    private final int recordSize;
+    private final int slabShift;
+    private final long slabMask;
+    private final AtomicReferenceArray<ByteBuffer> slabs;
+    private final ByteBuffer index;
+    private final long indexMask;
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final Queue<Long> freeSlots = new ConcurrentLinkedQueue<>();
+    private final LongAdder[] statusCounts = new LongAdder[STATUSES.length];
+    private final EventRetention retention;
+
+    public PaymentRepositoryOffHeap(
+            @Value("${payment.off-heap.capacity:" + DEFAULT_CAPACITY + "}") long capacity,
+            @Value("${payment.off-heap.dedup-window:" + DEFAULT_DEDUP_WINDOW + "}") int dedupWindow,
+            @Value("${payment.off-heap.max-id-bytes:" + DEFAULT_MAX_ID_BYTES + "}") int maxIdBytes) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be in [1, " + MAX_CAPACITY + "]: " + capacity);
+        }
+        if (dedupWindow <= 0) {
+            throw new IllegalArgumentException("dedupWindow must be positive: " + dedupWindow);
+        }
+        if (maxIdBytes <= 0 || maxIdBytes > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("maxIdBytes must be in [1, " + Short.MAX_VALUE + "]: " + maxIdBytes);
+        }
+        this.capacity = capacity;
+        this.dedupWindow = dedupWindow;
+        this.maxIdBytes = maxIdBytes;
+        this.ringOffset = align(ID + maxIdBytes);
+        this.recordSize = align(ringOffset + dedupWindow * EVENT_BYTES);
+        this.retention = EventRetention.lastEvents(dedupWindow);
+
+        long slabRecords = Math.min(Integer.highestOneBit(MAX_SLAB_BYTES / recordSize), ceilPowerOfTwo(capacity));
+        this.slabShift = Long.numberOfTrailingZeros(slabRecords);
+        this.slabMask = slabRecords - 1;
+        this.slabs = new AtomicReferenceArray<>((int) ((capacity + slabMask) >>> slabShift));
+
+        // load factor <= 0.5: probes stay short and always reach an empty entry
+        long entries = ceilPowerOfTwo(capacity * 2);
+        this.index = allocate(entries * Long.BYTES);
+        this.indexMask = entries - 1;
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public Optional<Payment> findById(String paymentId) {
+        byte[] key = paymentId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > maxIdBytes) {
+            // could never have been stored
+            return Optional.empty();
+        }
+        long slot = findSlot(key, hash(key));
+        return slot < 0 ? Optional.empty() : Optional.ofNullable(read(slot, paymentId));
+    }
+
+    @Override
+    public void save(Payment payment) {
+        byte[] key = encode(payment.getPaymentId());
+        long hash = hash(key);
+        long slot = findSlot(key, hash);
+        while (slot < 0) {
+            if (payment.getVersion() != 0) {
+                throw new OptimisticLockException("Version conflict for payment " + payment.getPaymentId());
+            }
+            slot = insertLocked(key, hash);
+            if (slot >= 0) {
+                writeInserted(slot, payment);
+                return;
+            }
+            slot = findSlot(key, hash);
+        }
+        ByteBuffer slab = slabOf(slot);
+        int offset = offsetOf(slot);
+
+        long expected = payment.getVersion() << 1;
+        int spins = 0;
+        while (!LONGS.compareAndSet(slab, offset, expected, expected | 1)) {
+            long stamp = (long) LONGS.getVolatile(slab, offset);
+            if ((stamp & 1) == 0 && stamp != expected) {
+                throw new OptimisticLockException("Version conflict for payment " + payment.getPaymentId());
+            }
+            spins = backoff(spins);
+        }
+        try {
+            write(slab, offset, payment, expected == 0);
+            expected += 2;
+        } finally {
+            LONGS.setRelease(slab, offset, expected);
+        }
+    }
+
+    /**
+     * Trava o registro, aplica o {@code mutator} e publica a nova versão; concorrentes no mesmo
+     * pagamento esperam. Um pagamento novo só ocupa um slot se o {@code mutator} o alterar; se outra
+     * thread inserir o mesmo id antes, o {@code mutator} roda de novo, sobre o registro dela.
+     */
+    @Override
+    public boolean update(String paymentId, Function<String, Payment> factory, Predicate<Payment> mutator) {
+        byte[] key = encode(paymentId);
+        long hash = hash(key);
+        long slot = findSlot(key, hash);
+        while (slot < 0) {
+            Payment created = factory.apply(paymentId);
+            if (!mutator.test(created)) {
+                return false;
+            }
+            slot = insertLocked(key, hash);
+            if (slot >= 0) {
+                writeInserted(slot, created);
+                return true;
+            }
+            slot = findSlot(key, hash);
+        }
+        ByteBuffer slab = slabOf(slot);
+        int offset = offsetOf(slot);
+
+        long stamp = lock(slab, offset);
+        try {
+            Payment payment = stamp == 0 ? factory.apply(paymentId) : decode(slab, offset, paymentId, stamp >>> 1);
+            if (!mutator.test(payment)) {
+                return false;
+            }
+            write(slab, offset, payment, stamp == 0);
+            stamp += 2;
+            return true;
+        } finally {
+            LONGS.setRelease(slab, offset, stamp);
+        }
+    }
+
+    /**
+     * Varre os registros sem criar objetos e só materializa os pagamentos no status.
+     */
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        List<Payment> found = new ArrayList<>();
+        long used = Math.min(nextSlot.get(), capacity);
+        for (long slot = 0; slot < used; slot++) {
+            ByteBuffer slab = slabs.get((int) (slot >>> slabShift));
+            if (slab == null) {
+                continue;
+            }
+            int offset = offsetOf(slot);
+            long stamp = (long) LONGS.getAcquire(slab, offset);
+            if (stamp >>> 1 == 0 || slab.get(offset + STATUS) != status.ordinal()) {
+                continue;
+            }
+            Payment payment = read(slot, idOf(slab, offset));
+            if (payment != null && payment.getStatus() == status) {
+                found.add(payment);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long countByStatus(PaymentStatus status) {
+        return statusCounts[status.ordinal()].sum();
+    }
+
+    /**
+     * @return slots ocupados por pagamentos (os devolvidos à lista livre não contam)
+     */
+    public long reservedSlots() {
+        return Math.min(nextSlot.get(), capacity) - freeSlots.size();
+    }
+
+    /* ========= records ========= */
+
+    /**
+     * Leitura otimista: copia o registro e confere que o stamp não mudou durante a cópia.
+     */
+    private Payment read(long slot, String paymentId) {
+        ByteBuffer slab = slabOf(slot);
+        int offset = offsetOf(slot);
+        int spins = 0;
+        while (true) {
+            long stamp = (long) LONGS.getAcquire(slab, offset);
+            if ((stamp & 1) != 0) {
+                spins = backoff(spins);
+                continue;
+            }
+            if (stamp == 0) {
+                return null;
+            }
+            int status = slab.get(offset + STATUS);
+            int count = slab.getInt(offset + RING_COUNT);
+            int head = slab.getInt(offset + RING_HEAD);
+            long[] events = null;
+            if (status >= 0 && status < STATUSES.length && count >= 0 && count <= dedupWindow
+                    && head >= 0 && head < dedupWindow) {
+                events = new long[2 * count];
+                for (int i = 0; i < count; i++) {
+                    int at = eventOffset(offset, (head + i) % dedupWindow);
+                    events[2 * i] = slab.getLong(at);
+                    events[2 * i + 1] = slab.getLong(at + Long.BYTES);
+                }
+            }
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getVolatile(slab, offset) == stamp && events != null) {
+                return toPayment(paymentId, STATUSES[status], stamp >>> 1, events);
+            }
+            spins = backoff(spins);
+        }
+    }
+
+    // called with the record locked
+    private Payment decode(ByteBuffer slab, int offset, String paymentId, long version) {
+        int count = slab.getInt(offset + RING_COUNT);
+        int head = slab.getInt(offset + RING_HEAD);
+        long[] events = new long[2 * count];
+        for (int i = 0; i < count; i++) {
+            int at = eventOffset(offset, (head + i) % dedupWindow);
+            events[2 * i] = slab.getLong(at);
+            events[2 * i + 1] = slab.getLong(at + Long.BYTES);
+        }
+        return toPayment(paymentId, STATUSES[slab.get(offset + STATUS)], version, events);
+    }
+
+    private Payment toPayment(String paymentId, PaymentStatus status, long version, long[] events) {
+        Payment payment = new Payment(paymentId, status, retention);
+        for (int i = 0; i < events.length; i += 2) {
+            payment.replay(new UUID(events[i], events[i + 1]), status);
+        }
+        payment.restoreVersion(version);
+        return payment;
+    }
+
+    /**
+     * Grava status e eventos novos com o registro travado; a versão é publicada por quem trava.
+     */
+    private void write(ByteBuffer slab, int offset, Payment payment, boolean inserted) {
+        int previous = slab.get(offset + STATUS);
+        int status = payment.getStatus().ordinal();
+        int count = slab.getInt(offset + RING_COUNT);
+        int head = slab.getInt(offset + RING_HEAD);
+        for (PaymentChange change : payment.getUncommittedChanges()) {
+            int position;
+            if (count < dedupWindow) {
+                position = (head + count) % dedupWindow;
+                count++;
+            } else {
+                position = head;
+                head = (head + 1) % dedupWindow;
+            }
+            int at = eventOffset(offset, position);
+            slab.putLong(at, change.eventId().getMostSignificantBits());
+            slab.putLong(at + Long.BYTES, change.eventId().getLeastSignificantBits());
+        }
+        slab.put(offset + STATUS, (byte) status);
+        slab.putInt(offset + RING_COUNT, count);
+        slab.putInt(offset + RING_HEAD, head);
+
+        if (inserted) {
+            statusCounts[status].increment();
+        } else if (previous != status) {
+            statusCounts[previous].decrement();
+            statusCounts[status].increment();
+        }
+    }
+
+    /**
+     * Grava um pagamento novo no slot travado por {@link #insertLocked} e publica a versão 1.
+     */
+    private void writeInserted(long slot, Payment payment) {
+        ByteBuffer slab = slabOf(slot);
+        int offset = offsetOf(slot);
+        long stamp = 0;
+        try {
+            write(slab, offset, payment, true);
+            stamp = 2;
+        } finally {
+            LONGS.setRelease(slab, offset, stamp);
+        }
+    }
+
+    private long lock(ByteBuffer slab, int offset) {
+        int spins = 0;
+        while (true) {
+            long stamp = (long) LONGS.getVolatile(slab, offset);
+            if ((stamp & 1) == 0 && LONGS.compareAndSet(slab, offset, stamp, stamp | 1)) {
+                return stamp;
+            }
+            spins = backoff(spins);
+        }
+    }
+
+    private static int backoff(int spins) {
+        if (spins < 100) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return spins + 1;
+    }
+
+    /* ========= index ========= */
+
+    private long findSlot(byte[] key, long hash) {
+        long i = hash & indexMask;
+        while (true) {
+            long entry = (long) LONGS.getAcquire(index, (int) (i << 3));
+            if (entry == 0) {
+                return -1;
+            }
+            long slot = (entry & ~TAG_MASK) - 1;
+            if (((entry ^ hash) & TAG_MASK) == 0 && matches(slot, key)) {
+                return slot;
+            }
+            i = (i + 1) & indexMask;
+        }
+    }
+
+    /**
+     * Reserva um slot para o id e o publica no índice por CAS já travado, para que leitores e
+     * escritores do mesmo id esperem a gravação.
+     *
+     * @return o slot, travado; ou {@code -1} se outra thread publicou o id antes, caso em que o
+     *         slot reservado volta para a lista livre
+     */
+    private long insertLocked(byte[] key, long hash) {
+        long reserved = -1;
+        long i = hash & indexMask;
+        while (true) {
+            int at = (int) (i << 3);
+            long entry = (long) LONGS.getAcquire(index, at);
+            if (entry == 0) {
+                if (reserved < 0) {
+                    reserved = reserve(key, hash);
+                }
+                if (LONGS.compareAndSet(index, at, 0L, (hash & TAG_MASK) | (reserved + 1))) {
+                    return reserved;
+                }
+                continue;
+            }
+            long slot = (entry & ~TAG_MASK) - 1;
+            if (((entry ^ hash) & TAG_MASK) == 0 && matches(slot, key)) {
+                if (reserved >= 0) {
+                    LONGS.setRelease(slabOf(reserved), offsetOf(reserved), 0L);
+                    freeSlots.add(reserved);
+                }
+                return -1;
+            }
+            i = (i + 1) & indexMask;
+        }
+    }
+
+    private long reserve(byte[] key, long hash) {
+        Long free = freeSlots.poll();
+        long slot = free != null ? free : nextSlot.getAndIncrement();
+        if (slot >= capacity) {
+            throw new IllegalStateException("Off-heap payment store is full: capacity=" + capacity);
+        }
+        ByteBuffer slab = slabOf(slot);
+        int offset = offsetOf(slot);
+        // locked, version 0: nothing to read until the first write publishes version 1
+        LONGS.setRelease(slab, offset, 1L);
+        slab.putLong(offset + HASH, hash);
+        slab.putShort(offset + ID_LENGTH, (short) key.length);
+        slab.put(offset + ID, key);
+        return slot;
+    }
+
+    private boolean matches(long slot, byte[] key) {
+        ByteBuffer slab = slabOf(slot);
+        int offset = offsetOf(slot);
+        if (slab.getShort(offset + ID_LENGTH) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (slab.get(offset + ID + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String idOf(ByteBuffer slab, int offset) {
+        byte[] key = new byte[slab.getShort(offset + ID_LENGTH)];
+        slab.get(offset + ID, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private byte[] encode(String paymentId) {
+        byte[] key = paymentId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > maxIdBytes) {
+            throw new IllegalArgumentException(
+                    "Payment id exceeds " + maxIdBytes + " bytes: " + paymentId);
+        }
+        return key;
+    }
+
+    private static long hash(byte[] key) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : key) {
+            hash = (hash ^ b) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /* ========= slabs ========= */
+
+    private ByteBuffer slabOf(long slot) {
+        int number = (int) (slot >>> slabShift);
+        ByteBuffer slab = slabs.get(number);
+        if (slab != null) {
+            return slab;
+        }
+        synchronized (slabs) {
+            slab = slabs.get(number);
+            if (slab == null) {
+                long records = Math.min(slabMask + 1, capacity - ((long) number << slabShift));
+                slab = allocate(records * recordSize);
+                slabs.set(number, slab);
+            }
+            return slab;
+        }
+    }
+
+    private int offsetOf(long slot) {
+        return (int) ((slot & slabMask) * recordSize);
+    }
+
+    private int eventOffset(int offset, int position) {
+        return offset + ringOffset + position * EVENT_BYTES;
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        // VarHandle CAS needs 8-byte aligned addresses
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes + Long.BYTES))
+                .alignedSlice(Long.BYTES)
+                .order(ByteOrder.nativeOrder());
+    }
+
+    private static int align(int bytes) {
+        return (bytes + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static long ceilPowerOfTwo(long value) {
+        return value <= 1 ? 1 : Long.highestOneBit(value - 1) << 1;
+    }
+}
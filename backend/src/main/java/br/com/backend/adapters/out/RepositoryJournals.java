@@ -0,0 +1,125 @@
+package br.com.backend.adapters.out;
+
+import br.com.libintegration.journal.Journal;
+import br.com.libintegration.journal.JournalConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One {@link StoreJournal} per in-memory store: journal segments in {@code <directory>/<store>}
+ * and snapshots in {@code <directory>/<store>/snapshots}. Snapshots are written in the
+ * background every {@code snapshotInterval} and once more on close, so a restart only replays
+ * the journal written since the last one. When disabled, repositories run without durability.
+ */
+public class RepositoryJournals implements AutoCloseable {
+
+    private static final RepositoryJournals DISABLED = new RepositoryJournals(null, null, Duration.ZERO);
+
+    private final Path directory;
+    private final JournalConfig config;
+    private final Map<String, StoreJournal> stores = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private RepositoryJournals(Path directory, JournalConfig config, Duration snapshotInterval) {
+        this.directory = directory;
+        this.config = config;
+        if (directory == null || snapshotInterval.isZero()) {
+            this.scheduler = null;
+        } else {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "repository-snapshots");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = snapshotInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::snapshotAll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static RepositoryJournals disabled() {
+        return DISABLED;
+    }
+
+    public static RepositoryJournals open(Path directory, JournalConfig config) {
+        return open(directory, config, Duration.ZERO);
+    }
+
+    /**
+     * @param snapshotInterval delay between background snapshots; zero only snapshots on close
+     */
+    public static RepositoryJournals open(Path directory, JournalConfig config, Duration snapshotInterval) {
+        return new RepositoryJournals(directory, config, snapshotInterval);
+    }
+
+    /**
+     * Opens the journal of a store and rebuilds it: newest snapshot first, then the journal tail.
+     *
+     * @param restore        applies one record (journal or snapshot) to the store
+     * @param snapshotSource hands every entry of the store, encoded as a record, to the consumer
+     * @return the store handle, a no-op one when journaling is disabled
+     */
+    public StoreJournal attach(String store, Consumer<ByteBuffer> restore,
+                               Consumer<Consumer<ByteBuffer>> snapshotSource) {
+        if (directory == null) {
+            return StoreJournal.DISABLED;
+        }
+        Path storeDirectory = directory.resolve(store);
+        StoreJournal journal;
+        try {
+            journal = new StoreJournal(store, Journal.open(storeDirectory, config),
+                    storeDirectory.resolve("snapshots"), snapshotSource);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal for store " + store, e);
+        }
+        if (stores.putIfAbsent(store, journal) != null) {
+            journal.close();
+            throw new IllegalStateException("Store " + store + " is already attached");
+        }
+        journal.recover(restore);
+        return journal;
+    }
+
+    /**
+     * Snapshots every attached store whose journal advanced since its last snapshot.
+     *
+     * @return number of snapshots written
+     */
+    public int snapshotAll() {
+        int written = 0;
+        for (Map.Entry<String, StoreJournal> store : stores.entrySet()) {
+            try {
+                if (store.getValue().snapshot()) {
+                    written++;
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Snapshot of store " + store.getKey() + " failed: " + e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        snapshotAll();
+        stores.values().forEach(StoreJournal::close);
+        stores.clear();
+    }
+}
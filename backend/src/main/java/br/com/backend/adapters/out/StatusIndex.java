@@ -0,0 +1,66 @@
+package br.com.backend.adapters.out;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice secundário por status: um conjunto concorrente de ids para cada valor do enum.
+ *
+ * As alterações de um id devem acontecer sob o lock do {@code compute} do seu registro no store,
+ * o que as serializa por id; leitores não usam lock. Durante uma troca o id pode aparecer
+ * brevemente nos dois conjuntos, então consultas conferem o status da entidade carregada.
+ */
+final class StatusIndex<S extends Enum<S>> {
+
+    private final Map<S, Set<String>> byStatus;
+
+    StatusIndex(Class<S> type) {
+        EnumMap<S, Set<String>> sets = new EnumMap<>(type);
+        for (S status : type.getEnumConstants()) {
+            sets.put(status, ConcurrentHashMap.newKeySet());
+        }
+        this.byStatus = sets;
+    }
+
+    /**
+     * Move o id entre conjuntos quando o status anterior é conhecido (entidades imutáveis).
+     *
+     * @param from status anterior, ou {@code null} para um id novo
+     */
+    void move(String id, S from, S to) {
+        if (from == to) {
+            return;
+        }
+        byStatus.get(to).add(id);
+        if (from != null) {
+            byStatus.get(from).remove(id);
+        }
+    }
+
+    /**
+     * Indexa o id no status atual, retirando-o dos demais. Usado por entidades mutáveis, cujo
+     * status anterior já foi alterado no próprio objeto.
+     */
+    void put(String id, S to) {
+        byStatus.get(to).add(id);
+        for (Map.Entry<S, Set<String>> entry : byStatus.entrySet()) {
+            if (entry.getKey() != to) {
+                entry.getValue().remove(id);
+            }
+        }
+    }
+
+    /**
+     * @return visão somente leitura e fracamente consistente dos ids no status
+     */
+    Set<String> idsWith(S status) {
+        return Collections.unmodifiableSet(byStatus.get(status));
+    }
+
+    long count(S status) {
+        return byStatus.get(status).size();
+    }
+}
@@ -1,16 +1,45 @@
 package br.com.backend.adapters.out;
 
 import br.com.backend.model.stock.Stock;
+import br.com.libdomain.ports.BulkSaveResult;
+import br.com.libintegration.journal.RecordBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+/**
+ * Com o journal habilitado, cada gravação registra o estado atual do estoque; a inicialização
+ * carrega o último snapshot e reaplica a cauda do journal, e o último registro de cada id
+ * prevalece. Como as entidades são mutáveis, o snapshot lê cada uma dentro de um
+ * {@code computeIfPresent}, bloqueando só aquela chave.
+ */
 @Component
 public class StockRepositoryInMemory implements StockRepository {
 
+    static final String STORE = "stock";
+
     private final Map<String, Stock> store = new ConcurrentHashMap<>();
+    private final StoreJournal journal;
+
+    public StockRepositoryInMemory() {
+        this(RepositoryJournals.disabled());
+    }
+
+    @Autowired
+    public StockRepositoryInMemory(RepositoryJournals journals) {
+        this.journal = journals.attach(STORE, this::restore, this::writeSnapshot);
+    }
 
     @Override
     public Optional<Stock> findById(String id) {
@@ -20,7 +49,125 @@ public class StockRepositoryInMemory implements StockRepository {
 
     @Override
     public void save(Stock entity) {
-        store.put(entity.getProductId(), entity);
+        long[] token = new long[1];
+        int epoch = journal.enter();
+        try {
+            store.compute(entity.getProductId(), (id, current) -> {
+                token[0] = append(entity);
+                return entity;
+            });
+        } finally {
+            journal.exit(epoch);
+        }
+        journal.commit(token[0]);
+    }
+
+    @Override
+    public Map<String, Stock> findAllById(Collection<String> ids) {
+        Map<String, Stock> found = new LinkedHashMap<>(Math.max(16, ids.size() * 2));
+        for (String id : ids) {
+            Stock s = store.get(id);
+            if (s != null) {
+                found.put(id, s);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Estoques não têm verificação de versão: cada um é gravado incondicionalmente, como em
+     * {@link #save(Stock)}. Uma falha de gravação (ex: id nulo, erro do journal) é registrada no
+     * resultado e o restante do lote continua; o que já foi gravado é confirmado no journal.
+     */
+    @Override
+    public BulkSaveResult<Stock> saveAll(Collection<Stock> entities) {
+        List<Stock> saved = new ArrayList<>(entities.size());
+        List<BulkSaveResult.Failure<Stock>> failures = new ArrayList<>();
+        long[] token = new long[1];
+        try {
+            for (Stock entity : entities) {
+                int epoch = journal.enter();
+                try {
+                    store.compute(entity.getProductId(), (id, current) -> {
+                        token[0] = append(entity);
+                        return entity;
+                    });
+                    saved.add(entity);
+                } catch (RuntimeException e) {
+                    failures.add(new BulkSaveResult.Failure<>(entity, e));
+                } finally {
+                    journal.exit(epoch);
+                }
+            }
+        } finally {
+            journal.commit(token[0]);
+        }
+        return new BulkSaveResult<>(saved, failures);
     }
-}
 
+    /**
+     * Aplica o {@code mutator} sobre a instância guardada (a mesma que {@link #findById} devolve),
+     * sem cópia, dentro do {@code compute} do id. Por isso o {@code mutator} que retorna
+     * {@code false} não pode ter alterado o estoque: nada é gravado no journal nesse caso, e uma
+     * alteração parcial ficaria visível sem nunca ser persistida. Os métodos de domínio usados
+     * aqui ({@code stock -> stock.reserve(qty)}) já rejeitam sem alterar nada.
+     */
+    @Override
+    public boolean update(String id, Function<String, Stock> factory, Predicate<Stock> mutator) {
+        boolean[] applied = new boolean[1];
+        long[] token = new long[1];
+        int epoch = journal.enter();
+        try {
+            store.compute(id, (key, current) -> {
+                Stock entity = current != null ? current : factory.apply(key);
+                applied[0] = mutator.test(entity);
+                if (!applied[0]) {
+                    return current;
+                }
+                token[0] = append(entity);
+                return entity;
+            });
+        } finally {
+            journal.exit(epoch);
+        }
+        journal.commit(token[0]);
+        return applied[0];
+    }
+
+    private long append(Stock entity) {
+        if (!journal.isEnabled()) {
+            return 0;
+        }
+        return journal.append(encode(entity, new RecordBuffer(64)));
+    }
+
+    /**
+     * Registro do journal e do snapshot: {@code [id][quantidade][contadores]}.
+     */
+    private static RecordBuffer encode(Stock entity, RecordBuffer record) {
+        return record.putString(entity.getProductId()).putInt(entity.getQuantity()).putInt(entity.getShards());
+    }
+
+    private void writeSnapshot(Consumer<ByteBuffer> sink) {
+        RecordBuffer record = new RecordBuffer(1024);
+        for (String id : store.keySet()) {
+            boolean[] present = new boolean[1];
+            store.computeIfPresent(id, (key, entity) -> {
+                encode(entity, record.clear());
+                present[0] = true;
+                return entity;
+            });
+            if (present[0]) {
+                sink.accept(record.flip());
+            }
+        }
+    }
+
+    private void restore(ByteBuffer record) {
+        String productId = RecordBuffer.getString(record);
+        int quantity = record.getInt();
+        // records written before sharding have no shard count
+        int shards = record.hasRemaining() ? record.getInt() : 1;
+        store.put(productId, shards == 1 ? new Stock(productId, quantity) : Stock.sharded(productId, quantity, shards));
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.backend.adapters.out;
+
+import br.com.libintegration.journal.CheckpointBarrier;
+import br.com.libintegration.journal.Journal;
+import br.com.libintegration.journal.RecordBuffer;
+import br.com.libintegration.journal.Snapshots;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Durabilidade de um store em memória: journal, snapshots e a barreira entre os dois.
+ *
+ * Toda escrita do repositório fica entre {@link #enter()} e {@link #exit(int)} (append no journal
+ * e publicação no mapa) e espera o fsync depois, com {@link #commit(long)}. O snapshot registra a
+ * posição do journal, drena apenas as escritas em andamento e percorre o mapa enquanto novas
+ * escritas continuam; na carga, o snapshot é lido e só a cauda do journal após aquela posição é
+ * reaplicada. Desabilitado, todos os métodos são no-ops.
+ */
+public final class StoreJournal {
+
+    static final StoreJournal DISABLED = new StoreJournal(null, null, null, null);
+
+    private final String name;
+    private final Journal journal;
+    private final Path snapshotDirectory;
+    private final Consumer<Consumer<ByteBuffer>> snapshotSource;
+    private final CheckpointBarrier barrier = new CheckpointBarrier();
+
+    // guarded by this
+    private long lastSnapshot = -1;
+
+    StoreJournal(String name, Journal journal, Path snapshotDirectory,
+                 Consumer<Consumer<ByteBuffer>> snapshotSource) {
+        this.name = name;
+        this.journal = journal;
+        this.snapshotDirectory = snapshotDirectory;
+        this.snapshotSource = snapshotSource;
+    }
+
+    /**
+     * Carrega o snapshot mais recente (em paralelo) e reaplica a cauda do journal.
+     *
+     * @param restore aplica um registro ao store; precisa ser thread-safe para chaves distintas
+     */
+    void recover(Consumer<ByteBuffer> restore) {
+        long started = System.nanoTime();
+        OptionalLong snapshot = Snapshots.load(snapshotDirectory, restore);
+        long from = snapshot.orElse(0);
+        journal.replayFrom(from, restore);
+        synchronized (this) {
+            lastSnapshot = snapshot.isPresent() ? from : -1;
+        }
+        System.out.printf("Recovered store %s in %d ms (snapshot=%s)%n",
+                name, (System.nanoTime() - started) / 1_000_000, snapshot.isPresent());
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * @return época a devolver em {@link #exit(int)}
+     */
+    public int enter() {
+        return journal == null ? 0 : barrier.enter();
+    }
+
+    public void exit(int epoch) {
+        if (journal != null) {
+            barrier.exit(epoch);
+        }
+    }
+
+    /**
+     * @return posição a confirmar com {@link #commit(long)}, ou {@code 0} se desabilitado
+     */
+    public long append(RecordBuffer record) {
+        return journal == null ? 0 : journal.append(record.flip());
+    }
+
+    public void commit(long position) {
+        if (journal != null && position != 0) {
+            journal.commit(position);
+        }
+    }
+
+    /**
+     * Escreve um snapshot se o journal avançou desde o último e apaga os segmentos que nenhum
+     * snapshot mantido ainda precisa.
+     *
+     * @return {@code true} se um snapshot foi escrito
+     */
+    public synchronized boolean snapshot() {
+        if (journal == null) {
+            return false;
+        }
+        long position = journal.position();
+        if (position == lastSnapshot) {
+            return false;
+        }
+        barrier.drain();
+        long previous = Snapshots.write(snapshotDirectory, position, snapshotSource);
+        lastSnapshot = position;
+        journal.truncateBefore(previous);
+        return true;
+    }
+
+    void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.backend.application.usecases;
+
+import java.time.Duration;
+
+/**
+ * How {@link ProcessPaymentEventUseCase} deals with concurrent events for the same payment.
+ *
+ * The in-memory, event-sourced and off-heap repositories already serialize {@code update} per
+ * payment, so no version conflict reaches the use case and DIRECT, the default, is enough.
+ * RETRY and STRIPED only matter with a repository whose {@code update} can throw
+ * {@link jakarta.persistence.OptimisticLockException}, such as a JPA adapter or one relying on
+ * the default findById + save of the repository port.
+ *
+ * @param mode        DIRECT (conflicts escape to the caller), RETRY (bounded jittered retry on
+ *                    version conflicts) or STRIPED (per-paymentId serialization through striped
+ *                    locks, with RETRY as fallback)
+ * @param stripes     number of locks used by STRIPED; rounded up to a power of two
+ * @param maxAttempts attempts per event, including the first one, for RETRY and STRIPED
+ * @param backoff     base delay before the first retry; doubles on every attempt
+ * @param maxBackoff  upper bound of the delay
+ */
+public record ConcurrencyPolicy(Mode mode, int stripes, int maxAttempts, Duration backoff, Duration maxBackoff) {
+
+    public static final ConcurrencyPolicy DEFAULT =
+            new ConcurrencyPolicy(Mode.DIRECT, 64, 5, Duration.ofMillis(1), Duration.ofMillis(50));
+
+    public enum Mode {
+        DIRECT,
+        RETRY,
+        STRIPED
+    }
+
+    public ConcurrencyPolicy {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+    }
+}
@@ -1,52 +1,192 @@
 package br.com.backend.application.usecases;
 
 import br.com.backend.adapters.out.PaymentRepository;
+import br.com.backend.model.payment.EventRetention;
 import br.com.backend.model.payment.Payment;
 import br.com.backend.model.payment.PaymentStatus;
+import br.com.libdomain.ports.IdempotencyStore;
+import br.com.libdomain.state.TransitionListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import jakarta.persistence.OptimisticLockException;
 
 /**
  * Use case for processing payment events in an idempotent manner.
  * It ensures that the same event is not applied multiple times to a payment.
+ *
+ * Concurrent events for the same payment are handled according to the {@link ConcurrencyPolicy}:
+ * in STRIPED mode they are serialized by a lock chosen from the paymentId hash, so a hot payment
+ * never races with itself while different payments stay parallel (up to stripe collisions).
+ * Version conflicts that still happen are retried with capped exponential backoff and full jitter.
+ *
+ * Status changes are reported to the injected {@link TransitionListener}s only once the repository
+ * has committed them, so a transition rejected by a version conflict is never announced.
  */
 @Component
 public class ProcessPaymentEventUseCase {
 
     private final PaymentRepository repository;
+    private final IdempotencyStore idempotencyStore;
+    private final ConcurrencyPolicy policy;
+    private final EventRetention retention;
+    private final ReentrantLock[] stripes;
+    private final List<TransitionListener<PaymentStatus>> listeners;
 
-    public ProcessPaymentEventUseCase(PaymentRepository repository) {
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public ProcessPaymentEventUseCase(PaymentRepository repository,
+                                      IdempotencyStore idempotencyStore,
+                                      ConcurrencyPolicy policy,
+                                      EventRetention retention,
+                                      List<TransitionListener<PaymentStatus>> listeners) {
         this.repository = repository;
+        this.idempotencyStore = idempotencyStore;
+        this.policy = policy;
+        this.retention = retention;
+        this.listeners = List.copyOf(listeners);
+        if (policy.mode() == ConcurrencyPolicy.Mode.STRIPED) {
+            // power of two, so the stripe is picked with a mask
+            int count = policy.stripes() == 1 ? 1 : Integer.highestOneBit(policy.stripes() - 1) << 1;
+            this.stripes = new ReentrantLock[count];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new ReentrantLock();
+            }
+        } else {
+            this.stripes = null;
+        }
     }
 
     public void execute(UUID eventId, String paymentId, PaymentStatus targetStatus) {
 
-        Payment payment = repository.findById(paymentId)
-                .orElseGet(() -> new Payment(
-                        paymentId,
-                        PaymentStatus.CREATED
-                ));
+        // replays and redeliveries are rejected here, without touching the repository
+        if (idempotencyStore.isProcessed(eventId)) {
+            duplicates.increment();
+            return;
+        }
 
-        boolean applied = payment.applyEvent(eventId, targetStatus);
+        boolean applied = applyWithRetry(eventId, paymentId, targetStatus);
 
-        if (!applied) {
+        if (applied) {
+            // only applied events are remembered: a rejected transition may still apply on redelivery
+            idempotencyStore.markProcessed(eventId);
+        } else {
             System.out.println(Thread.currentThread().getName() + " NO-OP (IDEMPOTENT)");
-            return;
         }
+    }
+
+    /**
+     * @return events skipped by the idempotency store as already processed
+     */
+    public long duplicates() {
+        return duplicates.sum();
+    }
+
+    /**
+     * @return version conflicts seen, including the ones that were retried
+     */
+    public long conflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * @return retry attempts made after a conflict
+     */
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return events that still conflicted after the last attempt
+     */
+    public long retriesExhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * @return lock stripes in use (the configured count rounded up to a power of two), 0 unless STRIPED
+     */
+    public int stripeCount() {
+        return stripes == null ? 0 : stripes.length;
+    }
+
+    private boolean applyWithRetry(UUID eventId, String paymentId, PaymentStatus targetStatus) {
+        int maxAttempts = policy.mode() == ConcurrencyPolicy.Mode.DIRECT ? 1 : policy.maxAttempts();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return applySerialized(eventId, paymentId, targetStatus);
+            } catch (OptimisticLockException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                // backoff happens outside the stripe, so other payments on it are not held up
+                backoff(attempt);
+            }
+        }
+    }
 
+    private boolean applySerialized(UUID eventId, String paymentId, PaymentStatus targetStatus) {
+        if (stripes == null) {
+            return apply(eventId, paymentId, targetStatus);
+        }
+        int hash = paymentId.hashCode();
+        ReentrantLock lock = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        lock.lock();
         try {
-            repository.save(payment);
+            return apply(eventId, paymentId, targetStatus);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean apply(UUID eventId, String paymentId, PaymentStatus targetStatus) {
+        PaymentStatus[] from = new PaymentStatus[1];
+        try {
+            // applied atomically against the stored aggregate: no detached copy, no lost update
+            boolean applied = repository.update(
+                    paymentId,
+                    id -> new Payment(id, PaymentStatus.CREATED, retention),
+                    payment -> {
+                        from[0] = payment.getStatus();
+                        return payment.applyEvent(eventId, targetStatus);
+                    }
+            );
+            if (applied && from[0] != targetStatus) {
+                // committed: only now is the transition real
+                for (TransitionListener<PaymentStatus> listener : listeners) {
+                    listener.onTransition(from[0], targetStatus);
+                }
+            }
+            return applied;
         } catch (RuntimeException e) {
             // Map repository-specific optimistic lock exceptions to Jakarta's OptimisticLockException
             if (isOptimisticLockException(e)) {
-                throw new OptimisticLockException(e.getMessage());
+                throw e instanceof OptimisticLockException ole ? ole : new OptimisticLockException(e.getMessage());
             }
             throw e;
         }
     }
 
+    private void backoff(int attempt) {
+        long base = policy.backoff().toNanos();
+        long cap = policy.maxBackoff().toNanos();
+        long ceiling = Math.min(cap, base << Math.min(attempt - 1, 20));
+        if (ceiling > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+
     private boolean isOptimisticLockException(Throwable t) {
         Throwable cur = t;
         while (cur != null) {
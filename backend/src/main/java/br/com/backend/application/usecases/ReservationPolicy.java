@@ -0,0 +1,32 @@
+package br.com.backend.application.usecases;
+
+import java.time.Duration;
+
+/**
+ * How long {@link ReserveOrderStockUseCase} holds stock for an order before giving it back.
+ *
+ * @param ttl       time an unsettled reservation is held; zero disables expiry
+ * @param tick      resolution of the expiry timing wheel; a reservation expires at most one tick late
+ * @param wheelSize buckets per level of the timing wheel, a power of two
+ */
+public record ReservationPolicy(Duration ttl, Duration tick, int wheelSize) {
+
+    public static final ReservationPolicy DEFAULT =
+            new ReservationPolicy(Duration.ofMinutes(15), Duration.ofMillis(100), 256);
+
+    public static final ReservationPolicy NO_EXPIRY =
+            new ReservationPolicy(Duration.ZERO, DEFAULT.tick(), DEFAULT.wheelSize());
+
+    public ReservationPolicy {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must not be negative: " + ttl);
+        }
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+    }
+
+    public boolean expires() {
+        return !ttl.isZero();
+    }
+}
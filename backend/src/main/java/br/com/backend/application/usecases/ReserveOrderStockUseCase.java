@@ -0,0 +1,217 @@
+package br.com.backend.application.usecases;
+
+import br.com.backend.adapters.out.OrderRepository;
+import br.com.backend.adapters.out.StockRepository;
+import br.com.backend.model.order.Order;
+import br.com.backend.model.order.OrderStatus;
+import br.com.backend.model.stock.Stock;
+import br.com.libdomain.state.TransitionListener;
+import br.com.libintegration.timer.TimingWheel;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Use case for reserving the stock of every line of an order in one step.
+ *
+ * Either every line is reserved or none is: the stocks are loaded in one batch and debited
+ * through {@link Stock#reserveAll}, which acquires all of them in a global order, so two orders
+ * sharing products never deadlock and a failed order never takes (and gives back) any unit.
+ *
+ * Reservations expire after the {@link ReservationPolicy} TTL unless the order is settled first.
+ * Expiry is tracked by a hierarchical {@link TimingWheel}, so scheduling and cancelling cost O(1)
+ * however many reservations are pending. The wheel's ticker only hands an expired reservation
+ * to a virtual thread, which releases its lines and cancels the order, so a slow save (an fsync
+ * with the journal enabled) or a burst of expiries never delays the other timeouts. Reservations
+ * are tracked per order even when expiry is disabled, and each one ends exactly once, by expiry,
+ * {@link #settle} or {@link #release}. An order cancelled
+ * by expiry is reported to the injected {@link TransitionListener}s once the cancellation is stored.
+ */
+@Component
+public class ReserveOrderStockUseCase implements AutoCloseable {
+
+    private final StockRepository stockRepository;
+    private final OrderRepository orderRepository;
+    private final ReservationPolicy policy;
+    private final List<TransitionListener<OrderStatus>> listeners;
+    private final TimingWheel<Reservation> expiries;
+    private final ExecutorService releases;
+    private final Map<String, Held> reservations = new ConcurrentHashMap<>();
+    private final LongAdder expired = new LongAdder();
+
+    public ReserveOrderStockUseCase(StockRepository stockRepository,
+                                    OrderRepository orderRepository,
+                                    ReservationPolicy policy,
+                                    List<TransitionListener<OrderStatus>> listeners) {
+        this.stockRepository = stockRepository;
+        this.orderRepository = orderRepository;
+        this.policy = policy;
+        this.listeners = List.copyOf(listeners);
+        this.releases = policy.expires()
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("reservation-release-", 0).factory())
+                : null;
+        this.expiries = policy.expires()
+                ? TimingWheel.start("reservation-expiry", policy.tick(), policy.wheelSize(),
+                        reservation -> releases.execute(() -> expire(reservation)))
+                : null;
+    }
+
+    /**
+     * The order id is claimed before any stock is touched, so two concurrent calls for the same
+     * order never both debit its lines; the claim is dropped again if the reservation fails.
+     *
+     * @return {@code true} if every line was reserved; {@code false} if the order is empty, already
+     *         holds a reservation, a product is unknown or any line lacks stock, in which case no
+     *         stock was touched
+     */
+    public boolean reserve(Order order) {
+        Map<String, Integer> items = order.getItems();
+        if (items.isEmpty()) {
+            return false;
+        }
+        Held held = new Held(new Reservation(order.getOrderId(), items));
+        if (reservations.putIfAbsent(order.getOrderId(), held) != null) {
+            return false;
+        }
+        boolean reserved = false;
+        try {
+            Map<String, Stock> stocks = stockRepository.findAllById(items.keySet());
+            if (stocks.size() != items.size()) {
+                return false;
+            }
+
+            Map<Stock, Integer> quantities = new HashMap<>(items.size() * 2);
+            items.forEach((productId, qty) -> quantities.put(stocks.get(productId), qty));
+            if (!Stock.reserveAll(quantities)) {
+                return false;
+            }
+            stockRepository.saveAll(stocks.values());
+            if (expiries != null) {
+                // if it fires before the assignment, expire() already dropped the claim
+                held.timeout = expiries.schedule(held.reservation, policy.ttl());
+            }
+            held.reserved = true;
+            reserved = true;
+            return true;
+        } finally {
+            if (!reserved) {
+                reservations.remove(order.getOrderId(), held);
+            }
+        }
+    }
+
+    /**
+     * Makes an order's reservation final once it is paid: the expiry is cancelled and the
+     * reservation is forgotten, so the reserved units stay taken and {@link #release} no longer
+     * applies to it.
+     *
+     * @return {@code true} if the reservation was made final; {@code false} if the order had no
+     *         reservation, it is still being made or it had already expired
+     */
+    public boolean settle(String orderId) {
+        Held held = take(orderId);
+        return held != null && (held.timeout == null || held.timeout.cancel());
+    }
+
+    /**
+     * Gives back every line of a previously reserved order, whether or not expiry is enabled.
+     *
+     * @return {@code false} if the reservation had already expired (and was released then), was
+     *         settled or released, is still being made, or there is no reservation for the order
+     */
+    public boolean release(Order order) {
+        Held held = take(order.getOrderId());
+        if (held == null || (held.timeout != null && !held.timeout.cancel())) {
+            return false;
+        }
+        releaseLines(held.reservation.items());
+        return true;
+    }
+
+    /**
+     * Reservations whose expiry is still pending.
+     */
+    public long pendingExpiries() {
+        return expiries == null ? 0 : expiries.pending();
+    }
+
+    /**
+     * Reservations released by expiry since startup.
+     */
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public void close() {
+        if (expiries != null) {
+            expiries.close();
+            releases.shutdown();
+            try {
+                releases.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void expire(Reservation reservation) {
+        String orderId = reservation.orderId();
+        reservations.computeIfPresent(orderId, (id, held) -> held.reservation == reservation ? null : held);
+        releaseLines(reservation.items());
+        OrderStatus[] from = new OrderStatus[1];
+        boolean cancelled = orderRepository.findById(orderId)
+                .map(order -> orderRepository.update(orderId, id -> order, o -> {
+                    from[0] = o.getStatus();
+                    return o.getStatus() != OrderStatus.CANCELLED && o.applyStatus(OrderStatus.CANCELLED);
+                }))
+                .orElse(false);
+        if (cancelled) {
+            for (TransitionListener<OrderStatus> listener : listeners) {
+                listener.onTransition(from[0], OrderStatus.CANCELLED);
+            }
+        }
+        expired.increment();
+    }
+
+    /**
+     * Removes a completed reservation; one still being made by {@link #reserve} is left alone.
+     */
+    private Held take(String orderId) {
+        Held held = reservations.get(orderId);
+        return held != null && held.reserved && reservations.remove(orderId, held) ? held : null;
+    }
+
+    private void releaseLines(Map<String, Integer> items) {
+        Map<String, Stock> stocks = stockRepository.findAllById(items.keySet());
+        stocks.forEach((productId, stock) -> stock.release(items.get(productId)));
+        stockRepository.saveAll(stocks.values());
+    }
+
+    /**
+     * What an expiry gives back: the lines as they were when reserved.
+     */
+    private record Reservation(String orderId, Map<String, Integer> items) {
+    }
+
+    /**
+     * An order's claim in {@link #reservations}: taken before the stock is debited and marked
+     * {@code reserved} once it is, with its pending expiry when expiry is enabled.
+     */
+    private static final class Held {
+        private final Reservation reservation;
+        private volatile TimingWheel.Timeout<Reservation> timeout;
+        private volatile boolean reserved;
+
+        private Held(Reservation reservation) {
+            this.reservation = reservation;
+        }
+    }
+}
@@ -1,25 +1,76 @@
 package br.com.backend.config;
 
+import br.com.backend.adapters.out.IdempotencyStoreInMemory;
 import br.com.backend.adapters.out.PaymentRepository;
+import br.com.backend.application.usecases.ConcurrencyPolicy;
+import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
+import br.com.backend.application.usecases.ReservationPolicy;
+import br.com.backend.application.usecases.ReserveOrderStockUseCase;
+import br.com.backend.model.payment.EventRetention;
 import br.com.backend.strategy.OrderCreatedStrategy;
 import br.com.backend.strategy.PaymentApprovedStrategy;
+import br.com.backend.strategy.PaymentStatusChangedStrategy;
+import br.com.libdomain.ports.IdempotencyStore;
 import br.com.libdomain.strategy.EventStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties({PaymentProperties.class, ReservationProperties.class})
 public class DomainConfig {
 
     private final PaymentRepository paymentRepository;
+    private final PaymentProperties paymentProperties;
 
-    public DomainConfig(PaymentRepository paymentRepository) {
+    public DomainConfig(PaymentRepository paymentRepository, PaymentProperties paymentProperties) {
         this.paymentRepository = paymentRepository;
+        this.paymentProperties = paymentProperties;
     }
 
+    /**
+     * Retention of the processed event IDs of every payment the application creates or rebuilds.
+     * Static, because the payment repositories need it and this configuration needs a repository.
+     */
     @Bean
-    public EventStrategy paymentApprovedStrategy() {
+    public static EventRetention paymentEventRetention(PaymentProperties paymentProperties) {
+        return paymentProperties.getIdempotency().toRetention();
+    }
+
+    @Bean
+    public IdempotencyStore idempotencyStore() {
+        PaymentProperties.IdempotencySettings settings = paymentProperties.getIdempotency();
+        if (!settings.isStoreEnabled()) {
+            return IdempotencyStore.none();
+        }
+        return new IdempotencyStoreInMemory(
+                settings.getStoreTtl(),
+                settings.getStoreExpectedEvents(),
+                settings.getStoreFalsePositiveRate()
+        );
+    }
+
+    @Bean
+    public ConcurrencyPolicy paymentConcurrencyPolicy() {
+        return paymentProperties.getConcurrency().toPolicy();
+    }
+
+    @Bean
+    public ReservationPolicy reservationPolicy(ReservationProperties reservationProperties) {
+        return reservationProperties.toPolicy();
+    }
+
+    @Bean
+    public PaymentMetricsBinder paymentMetricsBinder(ProcessPaymentEventUseCase useCase) {
+        return new PaymentMetricsBinder(useCase);
+    }
+
+    @Bean
+    public EventStrategy paymentApprovedStrategy(ReserveOrderStockUseCase reserveOrderStock,
+                                                 IdempotencyStore idempotencyStore,
+                                                 EventRetention retention) {
         // inject the repository into the strategy
-        return new PaymentApprovedStrategy(paymentRepository);
+        return new PaymentApprovedStrategy(paymentRepository, reserveOrderStock, idempotencyStore, retention);
     }
 
     @Bean
@@ -28,4 +79,10 @@ public class DomainConfig {
         return new OrderCreatedStrategy(paymentRepository);
     }
 
+    @Bean
+    public EventStrategy paymentStatusChangedStrategy(ProcessPaymentEventUseCase useCase,
+                                                      ReserveOrderStockUseCase reserveOrderStock) {
+        return new PaymentStatusChangedStrategy(useCase, reserveOrderStock);
+    }
+
 }
@@ -0,0 +1,34 @@
+package br.com.backend.config;
+
+import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the duplicate, version conflict and retry counters of {@link ProcessPaymentEventUseCase}.
+ */
+public class PaymentMetricsBinder implements MeterBinder {
+
+    private final ProcessPaymentEventUseCase useCase;
+
+    public PaymentMetricsBinder(ProcessPaymentEventUseCase useCase) {
+        this.useCase = useCase;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("payment.duplicates", useCase, ProcessPaymentEventUseCase::duplicates)
+                .description("Events skipped by the idempotency store as already processed")
+                .register(registry);
+        FunctionCounter.builder("payment.conflicts", useCase, ProcessPaymentEventUseCase::conflicts)
+                .description("Version conflicts while applying payment events")
+                .register(registry);
+        FunctionCounter.builder("payment.retries", useCase, ProcessPaymentEventUseCase::retries)
+                .description("Retries after a version conflict")
+                .register(registry);
+        FunctionCounter.builder("payment.retries.exhausted", useCase, ProcessPaymentEventUseCase::retriesExhausted)
+                .description("Events that still conflicted after the last attempt")
+                .register(registry);
+    }
+}
@@ -0,0 +1,180 @@
+package br.com.backend.config;
+
+import br.com.backend.application.usecases.ConcurrencyPolicy;
+import br.com.backend.model.payment.EventRetention;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "payment")
+public class PaymentProperties {
+
+    /**
+     * Per-payment idempotency history.
+     */
+    private final IdempotencySettings idempotency = new IdempotencySettings();
+
+    /**
+     * Handling of concurrent events for the same payment.
+     */
+    private final ConcurrencySettings concurrency = new ConcurrencySettings();
+
+    public IdempotencySettings getIdempotency() {
+        return idempotency;
+    }
+
+    public ConcurrencySettings getConcurrency() {
+        return concurrency;
+    }
+
+    public static class ConcurrencySettings {
+
+        /**
+         * DIRECT (conflicts reach the caller), RETRY (bounded jittered retry) or STRIPED (per-payment locks + retry).
+         */
+        private ConcurrencyPolicy.Mode mode = ConcurrencyPolicy.DEFAULT.mode();
+
+        /**
+         * Number of striped locks; payments whose IDs hash to the same stripe are serialized together.
+         */
+        private int stripes = ConcurrencyPolicy.DEFAULT.stripes();
+
+        /**
+         * Attempts per event, including the first one.
+         */
+        private int maxAttempts = ConcurrencyPolicy.DEFAULT.maxAttempts();
+
+        private Duration backoff = ConcurrencyPolicy.DEFAULT.backoff();
+
+        private Duration maxBackoff = ConcurrencyPolicy.DEFAULT.maxBackoff();
+
+        public ConcurrencyPolicy toPolicy() {
+            return new ConcurrencyPolicy(mode, stripes, maxAttempts, backoff, maxBackoff);
+        }
+
+        public ConcurrencyPolicy.Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(ConcurrencyPolicy.Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(Duration backoff) {
+            this.backoff = backoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    public static class IdempotencySettings {
+
+        /**
+         * Remember only the last N processed event IDs of each payment. 0 keeps all of them.
+         */
+        private int maxEvents = 0;
+
+        /**
+         * Forget processed event IDs older than this. Unset keeps them forever.
+         */
+        private Duration window;
+
+        /**
+         * Check event IDs against a global store (Bloom filter + exact TTL map) before loading the payment.
+         */
+        private boolean storeEnabled = true;
+
+        /**
+         * How long the global store remembers a processed event ID.
+         */
+        private Duration storeTtl = Duration.ofMinutes(10);
+
+        /**
+         * Event IDs expected per store-ttl; sizes the Bloom filter.
+         */
+        private long storeExpectedEvents = 100_000;
+
+        /**
+         * Bloom filter false positive target. A false positive only costs an exact map lookup.
+         */
+        private double storeFalsePositiveRate = 0.01;
+
+        public EventRetention toRetention() {
+            return new EventRetention(maxEvents, window);
+        }
+
+        public int getMaxEvents() {
+            return maxEvents;
+        }
+
+        public void setMaxEvents(int maxEvents) {
+            this.maxEvents = maxEvents;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public boolean isStoreEnabled() {
+            return storeEnabled;
+        }
+
+        public void setStoreEnabled(boolean storeEnabled) {
+            this.storeEnabled = storeEnabled;
+        }
+
+        public Duration getStoreTtl() {
+            return storeTtl;
+        }
+
+        public void setStoreTtl(Duration storeTtl) {
+            this.storeTtl = storeTtl;
+        }
+
+        public long getStoreExpectedEvents() {
+            return storeExpectedEvents;
+        }
+
+        public void setStoreExpectedEvents(long storeExpectedEvents) {
+            this.storeExpectedEvents = storeExpectedEvents;
+        }
+
+        public double getStoreFalsePositiveRate() {
+            return storeFalsePositiveRate;
+        }
+
+        public void setStoreFalsePositiveRate(double storeFalsePositiveRate) {
+            this.storeFalsePositiveRate = storeFalsePositiveRate;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.backend.config;
+
+import br.com.backend.adapters.out.RepositoryJournals;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Durability of the in-memory repositories.
+ *
+ * Only the in-memory payment repository writes to the journal; the event-sourced and off-heap
+ * ones keep payments in memory only, so enabling the journal together with them is refused at
+ * startup instead of leaving payments silently not durable.
+ */
+@Configuration
+@EnableConfigurationProperties(PersistenceProperties.class)
+public class PersistenceConfig {
+
+    @Bean(destroyMethod = "close")
+    public RepositoryJournals repositoryJournals(PersistenceProperties props,
+                                                 @Value("${payment.repository:in-memory}") String paymentRepository) {
+        PersistenceProperties.JournalSettings journal = props.getJournal();
+        if (!journal.isEnabled()) {
+            return RepositoryJournals.disabled();
+        }
+        if (!"in-memory".equals(paymentRepository)) {
+            throw new IllegalStateException("persistence.journal.enabled=true requires payment.repository=in-memory: "
+                    + "the " + paymentRepository + " payment repository does not write to the journal");
+        }
+        return RepositoryJournals.open(Path.of(journal.getDirectory()), journal.toConfig(),
+                journal.getSnapshotInterval());
+    }
+}
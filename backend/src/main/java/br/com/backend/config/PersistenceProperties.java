@@ -0,0 +1,107 @@
+package br.com.backend.config;
+
+import br.com.libintegration.journal.FsyncPolicy;
+import br.com.libintegration.journal.JournalConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "persistence")
+public class PersistenceProperties {
+
+    /**
+     * Memory-mapped journal of the in-memory repositories.
+     */
+    private final JournalSettings journal = new JournalSettings();
+
+    public JournalSettings getJournal() {
+        return journal;
+    }
+
+    public static class JournalSettings {
+
+        /**
+         * Record every successful save and replay the journal on startup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Base directory; each repository gets its own sub-directory of segment files.
+         */
+        private String directory = "data/journal";
+
+        /**
+         * Size of each memory-mapped segment file.
+         */
+        private DataSize segmentSize = DataSize.ofBytes(JournalConfig.DEFAULT.segmentSize());
+
+        /**
+         * PER_WRITE (fsync on every save), GROUP_COMMIT (saves wait for a shared fsync) or PERIODIC (background fsync).
+         */
+        private FsyncPolicy fsyncPolicy = JournalConfig.DEFAULT.fsyncPolicy();
+
+        /**
+         * Background fsync interval of the PERIODIC policy.
+         */
+        private Duration flushInterval = JournalConfig.DEFAULT.flushInterval();
+
+        /**
+         * Delay between background snapshots; a restart loads the newest one and replays only the
+         * journal written after it. Zero disables periodic snapshots (one is still taken on shutdown).
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+
+        public JournalConfig toConfig() {
+            return new JournalConfig(Math.toIntExact(segmentSize.toBytes()), fsyncPolicy, flushInterval);
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public FsyncPolicy getFsyncPolicy() {
+            return fsyncPolicy;
+        }
+
+        public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.backend.config;
+
+import br.com.backend.application.usecases.ReservationPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "reservation")
+public class ReservationProperties {
+
+    /**
+     * Time stock stays reserved for an order that is not settled; zero keeps reservations forever.
+     */
+    private Duration ttl = ReservationPolicy.DEFAULT.ttl();
+
+    /**
+     * Resolution of the expiry timing wheel.
+     */
+    private Duration tick = ReservationPolicy.DEFAULT.tick();
+
+    /**
+     * Buckets per timing wheel level, a power of two.
+     */
+    private int wheelSize = ReservationPolicy.DEFAULT.wheelSize();
+
+    public ReservationPolicy toPolicy() {
+        return new ReservationPolicy(ttl, tick, wheelSize);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+}
@@ -1,27 +1,86 @@
 package br.com.backend.config;
 
-import br.com.libdomain.router.DefaultStrategySelector;
+import br.com.libdomain.router.AggregateKeyExtractor;
+import br.com.libdomain.router.BulkheadRegistry;
 import br.com.libdomain.router.EventRouter;
+import br.com.libdomain.router.IndexedStrategySelector;
+import br.com.libdomain.router.InstrumentedStrategy;
+import br.com.libdomain.router.InstrumentedStrategySelector;
+import br.com.libdomain.router.PartitionedEventRouter;
+import br.com.libdomain.router.RingBufferEventRouter;
 import br.com.libdomain.router.StrategySelector;
+import br.com.libdomain.router.metrics.RoutingMetrics;
 import br.com.libdomain.strategy.EventStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Configuration class for setting up the event routing mechanism.
  */
 @Configuration
+@EnableConfigurationProperties(RoutingProperties.class)
 public class RoutingConfig {
 
     @Bean
-    public StrategySelector strategySelector(List<EventStrategy> strategies) {
-        return new DefaultStrategySelector(strategies);
+    public RoutingMetrics routingMetrics(List<EventStrategy> strategies) {
+        // one series per type some strategy declares; anything else is counted as "other"
+        Set<String> knownTypes = new HashSet<>();
+        for (EventStrategy strategy : strategies) {
+            knownTypes.addAll(strategy.supportedTypes());
+        }
+        return new RoutingMetrics(knownTypes);
     }
 
     @Bean
-    public EventRouter eventRouter(StrategySelector selector) {
-        return new EventRouter(selector);
+    public RoutingMetricsBinder routingMetricsBinder(RoutingMetrics metrics) {
+        return new RoutingMetricsBinder(metrics);
     }
-}
\ No newline at end of file
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(RoutingProperties props) {
+        return new BulkheadRegistry(props.getBulkhead()::configFor);
+    }
+
+    @Bean
+    public StrategySelector strategySelector(List<EventStrategy> strategies,
+                                             RoutingMetrics metrics,
+                                             BulkheadRegistry bulkheads,
+                                             RoutingProperties props) {
+        // instrumentation sits inside the bulkhead, so latency measures the strategy itself
+        List<EventStrategy> wrapped = strategies;
+        if (props.isMetricsEnabled()) {
+            wrapped = InstrumentedStrategy.wrapAll(wrapped, metrics);
+        }
+        if (props.getBulkhead().isEnabled()) {
+            wrapped = bulkheads.wrapAll(wrapped, strategy -> props.getBulkhead().groupOf(nameOf(strategy)));
+        }
+
+        StrategySelector selector = new IndexedStrategySelector(wrapped);
+        return props.isMetricsEnabled() ? new InstrumentedStrategySelector(selector, metrics) : selector;
+    }
+
+    @Bean
+    public AggregateKeyExtractor aggregateKeyExtractor(RoutingProperties props) {
+        return AggregateKeyExtractor.payloadFields(props.getKeyFields());
+    }
+
+    @Bean
+    public EventRouter eventRouter(StrategySelector selector, AggregateKeyExtractor keyExtractor, RoutingProperties props) {
+        return switch (props.getMode()) {
+            case SEQUENTIAL -> new EventRouter(selector);
+            case PARTITIONED -> new PartitionedEventRouter(
+                    selector, keyExtractor, props.getLanes(), props.getMaxInFlight(), props.getOverflowPolicy());
+            case RING_BUFFER -> RingBufferEventRouter.start(selector, props.getRingSize(), props.getWaitStrategy());
+        };
+    }
+
+    private static String nameOf(EventStrategy strategy) {
+        EventStrategy target = strategy instanceof InstrumentedStrategy instrumented ? instrumented.delegate() : strategy;
+        return target.getClass().getSimpleName();
+    }
+}
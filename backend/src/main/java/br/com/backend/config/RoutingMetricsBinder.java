@@ -0,0 +1,64 @@
+package br.com.backend.config;
+
+import br.com.libdomain.router.metrics.LatencyHistogram;
+import br.com.libdomain.router.metrics.RoutingMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes {@link RoutingMetrics} through Micrometer. Meters read the lock-free counters
+ * lazily, so nothing is added to the routing hot path. Event type series are fixed
+ * (known types plus "other"); strategy series are registered as they first appear.
+ */
+public class RoutingMetricsBinder implements MeterBinder {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final RoutingMetrics metrics;
+
+    public RoutingMetricsBinder(RoutingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("router.selection.empty", metrics, RoutingMetrics::emptySelections)
+                .description("Events for which no strategy was selected")
+                .register(registry);
+
+        metrics.addListener(new RoutingMetrics.SeriesListener() {
+            @Override
+            public void typeAdded(String type, RoutingMetrics.TypeStats stats) {
+                FunctionCounter.builder("router.events", stats, RoutingMetrics.TypeStats::events)
+                        .tag("type", type)
+                        .description("Events routed by type")
+                        .register(registry);
+            }
+
+            @Override
+            public void strategyAdded(String strategy, RoutingMetrics.StrategyStats stats) {
+                FunctionCounter.builder("router.strategy.executions", stats, RoutingMetrics.StrategyStats::executions)
+                        .tag("strategy", strategy)
+                        .register(registry);
+                FunctionCounter.builder("router.strategy.failures", stats, RoutingMetrics.StrategyStats::failures)
+                        .tag("strategy", strategy)
+                        .register(registry);
+
+                LatencyHistogram latency = stats.latency();
+                for (double quantile : QUANTILES) {
+                    TimeGauge.builder("router.strategy.latency", latency, TimeUnit.NANOSECONDS, h -> h.valueAt(quantile))
+                            .tag("strategy", strategy)
+                            .tag("quantile", Double.toString(quantile))
+                            .register(registry);
+                }
+                TimeGauge.builder("router.strategy.latency.max", latency, TimeUnit.NANOSECONDS, LatencyHistogram::max)
+                        .tag("strategy", strategy)
+                        .register(registry);
+            }
+        });
+    }
+}
@@ -0,0 +1,266 @@
+package br.com.backend.config;
+
+import br.com.libdomain.router.Bulkhead;
+import br.com.libdomain.router.OverflowPolicy;
+import br.com.libdomain.router.PartitionedEventRouter;
+import br.com.libdomain.router.RingBufferEventRouter;
+import br.com.libdomain.router.WaitStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "routing")
+public class RoutingProperties {
+
+    /**
+     * Router engine: SEQUENTIAL (calling thread), PARTITIONED (key-affine lanes)
+     * or RING_BUFFER (preallocated ring with a single consumer thread).
+     */
+    private Mode mode = Mode.SEQUENTIAL;
+
+    /**
+     * Number of worker lanes used by the PARTITIONED mode. Defaults to the number of available processors.
+     */
+    private int lanes = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Payload fields used as aggregate key, first non-null wins.
+     */
+    private List<String> keyFields = new ArrayList<>(List.of("paymentId", "orderId"));
+
+    /**
+     * Maximum number of accepted but not yet completed events in the PARTITIONED mode.
+     */
+    private int maxInFlight = PartitionedEventRouter.DEFAULT_MAX_IN_FLIGHT;
+
+    /**
+     * What to do when max-in-flight is reached: BLOCK the producer, REJECT the event or run it on the caller (CALLER_RUNS).
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * Number of slots of the RING_BUFFER engine. Must be a power of two.
+     */
+    private int ringSize = RingBufferEventRouter.DEFAULT_SIZE;
+
+    /**
+     * How RING_BUFFER threads wait for progress: BUSY_SPIN, YIELD or PARK.
+     */
+    private WaitStrategy waitStrategy = WaitStrategy.YIELD;
+
+    /**
+     * Record per-type counters and per-strategy latency histograms (RoutingMetrics).
+     */
+    private boolean metricsEnabled = true;
+
+    /**
+     * Opt-in per-strategy bulkheads.
+     */
+    private final BulkheadSettings bulkhead = new BulkheadSettings();
+
+    public enum Mode {
+        SEQUENTIAL,
+        PARTITIONED,
+        RING_BUFFER
+    }
+
+    public static class BulkheadSettings {
+
+        /**
+         * Run each strategy (or strategy group) on its own bounded executor.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Settings used by groups that are not listed in {@code groups}.
+         */
+        private GroupSettings defaults = new GroupSettings();
+
+        /**
+         * Strategy class simple name -> group name. Unlisted strategies get a group of their own.
+         */
+        private Map<String, String> strategyGroups = new HashMap<>();
+
+        /**
+         * Group name -> settings.
+         */
+        private Map<String, GroupSettings> groups = new HashMap<>();
+
+        public Bulkhead.Config configFor(String group) {
+            return groups.getOrDefault(group, defaults).toConfig();
+        }
+
+        public String groupOf(String strategyName) {
+            return strategyGroups.getOrDefault(strategyName, strategyName);
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public GroupSettings getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(GroupSettings defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, String> getStrategyGroups() {
+            return strategyGroups;
+        }
+
+        public void setStrategyGroups(Map<String, String> strategyGroups) {
+            this.strategyGroups = strategyGroups;
+        }
+
+        public Map<String, GroupSettings> getGroups() {
+            return groups;
+        }
+
+        public void setGroups(Map<String, GroupSettings> groups) {
+            this.groups = groups;
+        }
+    }
+
+    public static class GroupSettings {
+
+        private int maxConcurrency = Bulkhead.Config.DEFAULT.maxConcurrency();
+
+        private int queueCapacity = Bulkhead.Config.DEFAULT.queueCapacity();
+
+        private Duration timeout = Bulkhead.Config.DEFAULT.timeout();
+
+        /**
+         * When false, the router hands the work off and moves on (deferred execution). Deferred
+         * bulkheads run one execution at a time to keep per-aggregate order, so they need max-concurrency 1.
+         * A deferred failure is only counted and reported by the bulkhead; the event is not redelivered.
+         */
+        private boolean waitForCompletion = Bulkhead.Config.DEFAULT.waitForCompletion();
+
+        /**
+         * REJECT sheds load when the bulkhead is saturated; CALLER_RUNS and BLOCK trade isolation for completeness.
+         */
+        private OverflowPolicy overflowPolicy = Bulkhead.Config.DEFAULT.overflowPolicy();
+
+        Bulkhead.Config toConfig() {
+            return new Bulkhead.Config(maxConcurrency, queueCapacity, timeout, waitForCompletion, overflowPolicy);
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public boolean isWaitForCompletion() {
+            return waitForCompletion;
+        }
+
+        public void setWaitForCompletion(boolean waitForCompletion) {
+            this.waitForCompletion = waitForCompletion;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(int lanes) {
+        this.lanes = lanes;
+    }
+
+    public List<String> getKeyFields() {
+        return keyFields;
+    }
+
+    public void setKeyFields(List<String> keyFields) {
+        this.keyFields = keyFields;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public int getRingSize() {
+        return ringSize;
+    }
+
+    public void setRingSize(int ringSize) {
+        this.ringSize = ringSize;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public BulkheadSettings getBulkhead() {
+        return bulkhead;
+    }
+}
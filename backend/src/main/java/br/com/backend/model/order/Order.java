@@ -16,6 +16,16 @@ public class Order {
         this.version = 0L;
     }
 
+    /**
+     * Rebuilds an order from persisted state, bypassing the status rules.
+     */
+    public static Order restore(String orderId, OrderStatus status, Map<String, Integer> items) {
+        Order order = new Order(orderId);
+        order.items.putAll(items);
+        order.status = status;
+        return order;
+    }
+
     public boolean addItem(String productId, int qty) {
         if (status != OrderStatus.NEW) return false;
         items.merge(productId, qty, Integer::sum);
@@ -23,7 +33,7 @@ public class Order {
     }
 
     public boolean applyStatus(OrderStatus target) {
-        if (!status.canTransitionTo(target)) return false;
+        if (!OrderStatus.machine().canTransition(status, target)) return false;
         this.status = target;
         return true;
     }
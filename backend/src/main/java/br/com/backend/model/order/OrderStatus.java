@@ -1,39 +1,27 @@
 package br.com.backend.model.order;
 
+import br.com.libdomain.state.StateMachine;
+
 /**
  * Order states and transitions.
  */
 public enum OrderStatus {
-    NEW {
-        @Override
-        boolean canTransition(OrderStatus target) {
-            return target == CONFIRMED || target == CANCELLED;
-        }
-    },
-    CONFIRMED {
-        @Override
-        boolean canTransition(OrderStatus target) {
-            return target == SHIPPED || target == CANCELLED;
-        }
-    },
-    SHIPPED {
-        @Override
-        boolean canTransition(OrderStatus target) {
-            return false;
-        }
-    },
-    CANCELLED {
-        @Override
-        boolean canTransition(OrderStatus target) {
-            return false;
-        }
-    };
+    NEW,
+    CONFIRMED,
+    SHIPPED,
+    CANCELLED;
 
-    public boolean canTransitionTo(OrderStatus target) {
-        if (this == target) return true;
-        return canTransition(target);
+    private static final StateMachine<OrderStatus> MACHINE = StateMachine.builder(OrderStatus.class)
+            .allowSelf()
+            .allow(NEW, CONFIRMED, CANCELLED)
+            .allow(CONFIRMED, SHIPPED, CANCELLED)
+            .build();
+
+    public static StateMachine<OrderStatus> machine() {
+        return MACHINE;
     }
 
-    abstract boolean canTransition(OrderStatus target);
+    public boolean canTransitionTo(OrderStatus target) {
+        return MACHINE.canTransition(this, target);
+    }
 }
-
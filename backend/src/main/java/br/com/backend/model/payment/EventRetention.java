@@ -0,0 +1,45 @@
+package br.com.backend.model.payment;
+
+import java.time.Duration;
+
+/**
+ * How many processed event IDs a payment remembers for idempotency.
+ * IDs beyond {@code maxEvents} (oldest first) or older than {@code window} are forgotten,
+ * which keeps memory per aggregate bounded. A redelivery older than the retention is then
+ * only rejected by the state transition rules.
+ *
+ * @param maxEvents last N event IDs to keep; {@code 0} keeps all of them
+ * @param window    how long an event ID is kept; {@code null} keeps it forever
+ */
+public record EventRetention(int maxEvents, Duration window) {
+
+    private static final EventRetention UNBOUNDED = new EventRetention(0, null);
+
+    public EventRetention {
+        if (maxEvents < 0) {
+            throw new IllegalArgumentException("maxEvents must not be negative: " + maxEvents);
+        }
+        if (window != null && (window.isZero() || window.isNegative())) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+    }
+
+    /**
+     * Keeps every processed event ID (the original behavior).
+     */
+    public static EventRetention unbounded() {
+        return UNBOUNDED;
+    }
+
+    public static EventRetention lastEvents(int maxEvents) {
+        return new EventRetention(maxEvents, null);
+    }
+
+    public static EventRetention within(Duration window) {
+        return new EventRetention(0, window);
+    }
+
+    public boolean isBounded() {
+        return maxEvents > 0 || window != null;
+    }
+}
@@ -1,8 +1,11 @@
 package br.com.backend.model.payment;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Payment entity with business logic to apply events in an idempotent manner
@@ -14,12 +17,34 @@ public class Payment {
     private PaymentStatus status;
     private long version;
 
-    private final Set<String> processedEventIds = new HashSet<>();
+    // immutable and persistent: shared between copies, replaced on every applied event
+    private ProcessedEventIds processedEventIds;
 
+    // accepted transitions not yet persisted, consumed by event-sourced repositories
+    private List<PaymentChange> uncommittedChanges = List.of();
+
+    /**
+     * Keeps every processed event ID; the application passes the configured {@link EventRetention}.
+     */
     public Payment(String paymentId, PaymentStatus initialStatus) {
+        this(paymentId, initialStatus, EventRetention.unbounded());
+    }
+
+    public Payment(String paymentId, PaymentStatus initialStatus, EventRetention retention) {
         this.paymentId = paymentId;
         this.status = initialStatus;
         this.version = 0;
+        this.processedEventIds = new ProcessedEventIds(retention);
+    }
+
+    private Payment(Payment source) {
+        this.paymentId = source.paymentId;
+        this.status = source.status;
+        this.version = source.version;
+        this.processedEventIds = source.processedEventIds;
+        this.uncommittedChanges = source.uncommittedChanges.isEmpty()
+                ? List.of()
+                : new ArrayList<>(source.uncommittedChanges);
     }
 
     /**
@@ -29,18 +54,22 @@ public class Payment {
     public boolean applyEvent(UUID eventId, PaymentStatus targetStatus) {
 
         // Idempotency
-        if (processedEventIds.contains(eventId.toString())) {
+        if (processedEventIds.contains(eventId)) {
             return false;
         }
 
-        // State transition rule
-        if (!status.canTransitionTo(targetStatus)) {
+        // State transition rule (listeners are notified by whoever commits the change)
+        if (!PaymentStatus.machine().canTransition(status, targetStatus)) {
             return false;
         }
 
         // Apply change
         this.status = targetStatus;
-        this.processedEventIds.add(eventId.toString());
+        this.processedEventIds = processedEventIds.add(eventId);
+        if (uncommittedChanges.isEmpty()) {
+            uncommittedChanges = new ArrayList<>(2);
+        }
+        uncommittedChanges.add(new PaymentChange(eventId, targetStatus));
         return true;
     }
 
@@ -64,20 +93,56 @@ public class Payment {
         this.version++;
     }
 
+    /**
+     * Re-applies a stored transition while rebuilding the payment from its event stream.
+     * No validation: the transition was already accepted when it was stored.
+     */
+    public void replay(UUID eventId, PaymentStatus targetStatus) {
+        this.status = targetStatus;
+        this.processedEventIds = processedEventIds.add(eventId);
+    }
+
+    public void restoreVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Transitions accepted since the payment was loaded, oldest first.
+     */
+    public List<PaymentChange> getUncommittedChanges() {
+        return Collections.unmodifiableList(uncommittedChanges);
+    }
+
+    /**
+     * Called by repositories once the uncommitted changes were persisted.
+     */
+    public void markCommitted() {
+        uncommittedChanges = List.of();
+    }
+
     /**
      * Used by the repository to ensure isolation.
      */
     public Set<String> getProcessedEventIds() {
-        return new HashSet<>(processedEventIds);
+        return processedEventIds.toStringSet();
+    }
+
+    /**
+     * Visits the processed event IDs without copying them; oldest first when the retention is bounded.
+     */
+    public void forEachProcessedEventId(Consumer<UUID> action) {
+        processedEventIds.forEach(action);
+    }
+
+    public int getProcessedEventCount() {
+        return processedEventIds.size();
     }
 
     /**
      * Copy factory to simulate detach (as JPA would do).
+     * O(1): the processed event history is persistent and shared, never copied.
      */
     public Payment copy() {
-        Payment copy = new Payment(this.paymentId, this.status);
-        copy.version = this.version;
-        copy.processedEventIds.addAll(this.processedEventIds);
-        return copy;
+        return new Payment(this);
     }
 }
@@ -0,0 +1,10 @@
+package br.com.backend.model.payment;
+
+import java.util.UUID;
+
+/**
+ * A transition accepted by {@link Payment#applyEvent(UUID, PaymentStatus)}.
+ * Event-sourced persistence stores these as the payment's append-only stream.
+ */
+public record PaymentChange(UUID eventId, PaymentStatus targetStatus) {
+}
@@ -1,54 +1,34 @@
 package br.com.backend.model.payment;
 
+import br.com.libdomain.state.StateMachine;
+
 /**
  * Possible states of a payment and transition rules between them.
  */
 public enum PaymentStatus {
 
-    CREATED {
-        @Override
-        boolean canTransition(PaymentStatus target) {
-            return target == AUTHORIZED || target == FAILED || target == APPROVED;
-        }
-    },
-    AUTHORIZED {
-        @Override
-        boolean canTransition(PaymentStatus target) {
-            return target == APPROVED || target == FAILED;
-        }
-    },
-    APPROVED {
-        @Override
-        boolean canTransition(PaymentStatus target) {
-            return target == REFUNDED;
-        }
-    },
-    FAILED {
-        @Override
-        boolean canTransition(PaymentStatus target) {
-            return false;
-        }
-    }, REFUNDED {
-        @Override
-        boolean canTransition(PaymentStatus target) {
-            return false;
-        }
-    };
+    CREATED,
+    AUTHORIZED,
+    APPROVED,
+    FAILED,
+    REFUNDED;
 
     /**
-     * Public rule:
-     * - Allows idempotency (same state)
-     * - Delegates specific transition rule
+     * Transition table, compiled into a bit matrix.
+     * Same state is always allowed (idempotent re-application).
      */
-    public boolean canTransitionTo(PaymentStatus target) {
-        if (this == target) {
-            return true;
-        }
-        return canTransition(target);
+    private static final StateMachine<PaymentStatus> MACHINE = StateMachine.builder(PaymentStatus.class)
+            .allowSelf()
+            .allow(CREATED, AUTHORIZED, FAILED, APPROVED)
+            .allow(AUTHORIZED, APPROVED, FAILED)
+            .allow(APPROVED, REFUNDED)
+            .build();
+
+    public static StateMachine<PaymentStatus> machine() {
+        return MACHINE;
     }
 
-    /**
-     * State-specific transition rule
-     */
-    abstract boolean canTransition(PaymentStatus target);
+    public boolean canTransitionTo(PaymentStatus target) {
+        return MACHINE.canTransition(this, target);
+    }
 }
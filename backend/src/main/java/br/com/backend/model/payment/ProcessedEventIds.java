@@ -0,0 +1,411 @@
+package br.com.backend.model.payment;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Immutable, persistent set of processed event IDs used for idempotency.
+ *
+ * Membership is a hash array mapped trie (HAMT) keyed on the two UUID longs: {@link #add(UUID)}
+ * returns a new set that shares every untouched node with the previous one, allocating only the
+ * path to the changed leaf. Holders can therefore share a set freely; copying a {@link Payment}
+ * never copies its history.
+ *
+ * When the {@link EventRetention} is bounded, insertion order is kept in a persistent 32-way
+ * radix trie indexed by insertion sequence, so the oldest IDs can be evicted by path copy too.
+ * Eviction happens on {@link #add(UUID)}; until then, IDs older than the retention window are
+ * already treated as absent by {@link #contains(UUID)}, {@link #forEach} and {@link #toStringSet()},
+ * so an idle payment neither rejects an expired redelivery nor persists its expired IDs.
+ */
+public final class ProcessedEventIds {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private final EventRetention retention;
+    private final Node root;
+    private final int size;
+
+    // insertion log, only kept for bounded retention: sequences [first, next) are live
+    private final Object[] log;
+    private final int logLevels;
+    private final long first;
+    private final long next;
+
+    public ProcessedEventIds(EventRetention retention) {
+        this(retention, null, 0, null, 1, 0, 0);
+    }
+
+    private ProcessedEventIds(EventRetention retention, Node root, int size,
+                              Object[] log, int logLevels, long first, long next) {
+        this.retention = retention;
+        this.root = root;
+        this.size = size;
+        this.log = log;
+        this.logLevels = logLevels;
+        this.first = first;
+        this.next = next;
+    }
+
+    public boolean contains(UUID eventId) {
+        return contains(eventId, cutoff(System.currentTimeMillis()));
+    }
+
+    private boolean contains(UUID eventId, long cutoff) {
+        long high = eventId.getMostSignificantBits();
+        long low = eventId.getLeastSignificantBits();
+        Key key = root != null ? root.find(hash(high, low), high, low, 0) : null;
+        return key != null && key.at > cutoff;
+    }
+
+    /**
+     * Returns a set that also contains the event ID, evicting whatever falls outside the
+     * retention first. This set is left unchanged.
+     *
+     * @return the new set, or {@code this} if the ID was already present
+     */
+    public ProcessedEventIds add(UUID eventId) {
+        long now = retention.window() != null ? System.currentTimeMillis() : 0L;
+        if (contains(eventId, cutoff(now))) {
+            return this;
+        }
+        if (size > 0 && log != null) {
+            // timestamps never go back along the log, so an expired ID is always evicted below
+            // before it is added again, even if the clock did
+            now = Math.max(now, ((Key) get(log, logLevels, next - 1)).at);
+        }
+        Key key = new Key(eventId.getMostSignificantBits(), eventId.getLeastSignificantBits(), now);
+
+        if (!retention.isBounded()) {
+            return new ProcessedEventIds(retention, put(root, key), size + 1, null, 1, 0, 0);
+        }
+
+        Node nodes = root;
+        int count = size;
+        Object[] entries = log;
+        long oldest = first;
+        while (count > 0 && expired(cutoff(key.at), count, (Key) get(entries, logLevels, oldest))) {
+            Key evicted = (Key) get(entries, logLevels, oldest);
+            nodes = nodes.remove(hash(evicted.high, evicted.low), evicted, 0);
+            entries = clear(entries, logLevels, oldest);
+            oldest++;
+            count--;
+        }
+
+        int levels = logLevels;
+        if (next >= capacity(levels)) {
+            Object[] grown = new Object[WIDTH];
+            grown[0] = entries;
+            entries = grown;
+            levels++;
+        }
+        entries = set(entries, levels, next, key);
+        return new ProcessedEventIds(retention, put(nodes, key), count + 1, entries, levels, oldest, next + 1);
+    }
+
+    /**
+     * @return IDs held, including expired ones not evicted yet by {@link #add(UUID)}
+     */
+    public int size() {
+        return size;
+    }
+
+    public EventRetention retention() {
+        return retention;
+    }
+
+    /**
+     * Visits every event ID still within the retention window; oldest first when the retention is bounded.
+     */
+    public void forEach(Consumer<UUID> action) {
+        if (log != null) {
+            long cutoff = cutoff(System.currentTimeMillis());
+            for (long sequence = first; sequence < next; sequence++) {
+                Key key = (Key) get(log, logLevels, sequence);
+                if (key.at > cutoff) {
+                    action.accept(key.toUuid());
+                }
+            }
+        } else if (root != null) {
+            root.forEach(key -> action.accept(key.toUuid()));
+        }
+    }
+
+    /**
+     * @return the event IDs still within the retention window, as strings; oldest first when
+     *         the retention is bounded
+     */
+    public Set<String> toStringSet() {
+        if (log != null) {
+            Set<String> ids = new LinkedHashSet<>(size * 2);
+            forEach(id -> ids.add(id.toString()));
+            return ids;
+        }
+        Set<String> ids = new HashSet<>(size * 2);
+        if (root != null) {
+            root.forEach(key -> ids.add(key.toUuid().toString()));
+        }
+        return ids;
+    }
+
+    private boolean expired(long cutoff, int count, Key oldest) {
+        int maxEvents = retention.maxEvents();
+        if (maxEvents > 0 && count >= maxEvents) {
+            return true;
+        }
+        return oldest.at <= cutoff;
+    }
+
+    /**
+     * @return timestamp at or before which an ID has left the window; {@link Long#MIN_VALUE} without one
+     */
+    private long cutoff(long now) {
+        return retention.window() != null ? now - retention.window().toMillis() : Long.MIN_VALUE;
+    }
+
+    private static Node put(Node root, Key key) {
+        long hash = hash(key.high, key.low);
+        return root == null
+                ? BitmapNode.EMPTY.put(hash, key, 0)
+                : root.put(hash, key, 0);
+    }
+
+    private static long hash(long high, long low) {
+        long hash = high * 0x9E3779B97F4A7C15L ^ low;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /* ========= insertion log (persistent radix trie) ========= */
+
+    private static long capacity(int levels) {
+        return 1L << (BITS * levels);
+    }
+
+    private static Object get(Object[] node, int levels, long sequence) {
+        for (int level = levels - 1; level > 0; level--) {
+            node = (Object[]) node[(int) (sequence >>> (BITS * level)) & MASK];
+        }
+        return node[(int) sequence & MASK];
+    }
+
+    private static Object[] set(Object[] node, int levels, long sequence, Key key) {
+        Object[] copy = node != null ? node.clone() : new Object[WIDTH];
+        int index = (int) (sequence >>> (BITS * (levels - 1))) & MASK;
+        copy[index] = levels == 1 ? key : set((Object[]) copy[index], levels - 1, sequence, key);
+        return copy;
+    }
+
+    /**
+     * Clears the oldest live sequence. Eviction is strictly FIFO, so a node becomes empty
+     * exactly when its last slot is cleared and can be dropped instead of copied.
+     */
+    private static Object[] clear(Object[] node, int levels, long sequence) {
+        int index = (int) (sequence >>> (BITS * (levels - 1))) & MASK;
+        Object child = levels == 1 ? null : clear((Object[]) node[index], levels - 1, sequence);
+        if (child == null && index == MASK) {
+            return null;
+        }
+        Object[] copy = node.clone();
+        copy[index] = child;
+        return copy;
+    }
+
+    /* ========= membership (HAMT) ========= */
+
+    private record Key(long high, long low, long at) {
+
+        boolean matches(long high, long low) {
+            return this.high == high && this.low == low;
+        }
+
+        UUID toUuid() {
+            return new UUID(high, low);
+        }
+    }
+
+    private sealed interface Node permits BitmapNode, CollisionNode {
+
+        /**
+         * @return the stored key, or {@code null} if absent
+         */
+        Key find(long hash, long high, long low, int shift);
+
+        Node put(long hash, Key key, int shift);
+
+        /**
+         * @return the node without the key, or {@code null} if it became empty
+         */
+        Node remove(long hash, Key key, int shift);
+
+        void forEach(Consumer<Key> action);
+    }
+
+    /**
+     * Inner node: a 32-bit bitmap of occupied positions and a dense array holding either a
+     * {@link Key} or a child {@link Node} per occupied position.
+     */
+    private record BitmapNode(int bitmap, Object[] slots) implements Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        @Override
+        public Key find(long hash, long high, long low, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Key key) {
+                return key.matches(high, low) ? key : null;
+            }
+            return ((Node) slot).find(hash, high, low, shift + BITS);
+        }
+
+        @Override
+        public Node put(long hash, Key key, int shift) {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, index);
+                copy[index] = key;
+                System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Key existing) {
+                replacement = merge(existing, hash(existing.high, existing.low), key, hash, shift + BITS);
+            } else {
+                replacement = ((Node) slot).put(hash, key, shift + BITS);
+            }
+            Object[] copy = slots.clone();
+            copy[index] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        public Node remove(long hash, Key key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slot = slots[index];
+            if (slot instanceof Key existing) {
+                if (!existing.matches(key.high, key.low)) {
+                    return this;
+                }
+                return without(bit, index);
+            }
+            Node child = ((Node) slot).remove(hash, key, shift + BITS);
+            if (child == slot) {
+                return this;
+            }
+            if (child == null) {
+                return without(bit, index);
+            }
+            Object[] copy = slots.clone();
+            copy[index] = child;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        public void forEach(Consumer<Key> action) {
+            for (Object slot : slots) {
+                if (slot instanceof Key key) {
+                    action.accept(key);
+                } else {
+                    ((Node) slot).forEach(action);
+                }
+            }
+        }
+
+        private Node without(int bit, int index) {
+            if (slots.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bit(long hash, int shift) {
+            return 1 << ((int) (hash >>> shift) & MASK);
+        }
+
+        private static Node merge(Key first, long firstHash, Key second, long secondHash, int shift) {
+            if (shift >= Long.SIZE) {
+                return new CollisionNode(new Key[]{first, second});
+            }
+            int firstBit = bit(firstHash, shift);
+            int secondBit = bit(secondHash, shift);
+            if (firstBit == secondBit) {
+                return new BitmapNode(firstBit, new Object[]{merge(first, firstHash, second, secondHash, shift + BITS)});
+            }
+            Object[] slots = Integer.compareUnsigned(firstBit, secondBit) < 0
+                    ? new Object[]{first, second}
+                    : new Object[]{second, first};
+            return new BitmapNode(firstBit | secondBit, slots);
+        }
+    }
+
+    /**
+     * Keys whose 64-bit hashes are identical.
+     */
+    private record CollisionNode(Key[] keys) implements Node {
+
+        @Override
+        public Key find(long hash, long high, long low, int shift) {
+            for (Key key : keys) {
+                if (key.matches(high, low)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node put(long hash, Key key, int shift) {
+            Key[] copy = Arrays.copyOf(keys, keys.length + 1);
+            copy[keys.length] = key;
+            return new CollisionNode(copy);
+        }
+
+        @Override
+        public Node remove(long hash, Key key, int shift) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].matches(key.high, key.low)) {
+                    if (keys.length == 1) {
+                        return null;
+                    }
+                    Key[] copy = new Key[keys.length - 1];
+                    System.arraycopy(keys, 0, copy, 0, i);
+                    System.arraycopy(keys, i + 1, copy, i, keys.length - i - 1);
+                    return new CollisionNode(copy);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void forEach(Consumer<Key> action) {
+            for (Key key : keys) {
+                action.accept(key);
+            }
+        }
+    }
+}
@@ -1,32 +1,219 @@
 package br.com.backend.model.stock;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stock of a product, reserved and released without locks.
+ *
+ * The quantity is kept in one or more sub-counters updated by CAS: a reservation only succeeds
+ * if it can take the whole amount from a single counter without going below zero, so stock is
+ * never oversold. With one counter (the default) the behaviour is exact. Hot SKUs can be split
+ * into several counters ({@link #sharded}); each thread starts at its own counter, and only when
+ * no counter can serve a request are all counters gathered and refilled evenly. A reservation
+ * fails only if even the gathered total is not enough.
+ *
+ * Operations that span counters ({@link #reserveAll}, rebalancing) briefly freeze each counter
+ * with a flag bit, always in (productId, counter) order so they cannot deadlock. Single-counter
+ * reserves and releases never freeze; they just wait for a frozen counter to be published.
+ */
 public class Stock {
+
+    // ints per 64-byte cache line: counters never share a line
+    private static final int STRIDE = 16;
+    private static final int FROZEN = Integer.MIN_VALUE;
+    private static final Comparator<Stock> ACQUISITION_ORDER = Comparator.comparing(Stock::getProductId)
+            .thenComparingInt(System::identityHashCode);
+
     private final String productId;
-    private int quantity;
+    private final int shards;
+    private final AtomicIntegerArray counters;
 
     public Stock(String productId, int initialQuantity) {
+        this(productId, initialQuantity, 1);
+    }
+
+    private Stock(String productId, int initialQuantity, int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be positive: " + shards);
+        }
+        if (initialQuantity < 0) {
+            throw new IllegalArgumentException("initialQuantity must not be negative: " + initialQuantity);
+        }
         this.productId = productId;
-        this.quantity = initialQuantity;
+        this.shards = shards;
+        this.counters = new AtomicIntegerArray(shards == 1 ? 1 : shards * STRIDE);
+        publish(initialQuantity);
+    }
+
+    /**
+     * Stock split into {@code shards} sub-counters, for products reserved by many threads at once.
+     */
+    public static Stock sharded(String productId, int initialQuantity, int shards) {
+        return new Stock(productId, initialQuantity, shards);
     }
 
-    public synchronized boolean reserve(int qty) {
+    public boolean reserve(int qty) {
         if (qty <= 0) return false;
-        if (quantity < qty) return false;
-        quantity -= qty;
-        return true;
+        int home = home();
+        for (int i = 0; i < shards; i++) {
+            if (tryTake(index((home + i) % shards), qty)) {
+                return true;
+            }
+        }
+        return shards > 1 && rebalanceAndTake(qty);
     }
 
-    public synchronized void release(int qty) {
+    public void release(int qty) {
         if (qty <= 0) return;
-        quantity += qty;
+        int index = index(home());
+        int spins = 0;
+        while (true) {
+            int available = counters.get(index);
+            if ((available & FROZEN) != 0) {
+                spins = await(spins);
+            } else if (counters.compareAndSet(index, available, available + qty)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reserves every line or none: all counters of all stocks are frozen in a global order,
+     * checked, and then either debited or published unchanged. No unit is ever taken and given
+     * back, so other readers never observe a partial reservation.
+     *
+     * @param quantities units per stock; a non-positive quantity fails the whole reservation
+     * @return {@code true} if every line was reserved
+     */
+    public static boolean reserveAll(Map<Stock, Integer> quantities) {
+        if (quantities.values().stream().anyMatch(qty -> qty == null || qty <= 0)) {
+            return false;
+        }
+        List<Stock> stocks = new ArrayList<>(quantities.keySet());
+        stocks.sort(ACQUISITION_ORDER);
+
+        long[] totals = new long[stocks.size()];
+        for (int i = 0; i < stocks.size(); i++) {
+            totals[i] = stocks.get(i).freeze();
+        }
+        boolean available = true;
+        for (int i = 0; i < stocks.size() && available; i++) {
+            available = totals[i] >= quantities.get(stocks.get(i));
+        }
+        for (int i = 0; i < stocks.size(); i++) {
+            Stock stock = stocks.get(i);
+            stock.publish(available ? totals[i] - quantities.get(stock) : totals[i]);
+        }
+        return available;
     }
 
     public String getProductId() {
         return productId;
     }
 
+    /**
+     * Sum of the sub-counters; exact with a single counter, a moment-in-time estimate while a
+     * sharded stock is being reserved or rebalanced.
+     */
     public int getQuantity() {
-        return quantity;
+        if (shards == 1) {
+            return counters.get(0) & ~FROZEN;
+        }
+        long total = 0;
+        for (int i = 0; i < shards; i++) {
+            total += counters.get(index(i)) & ~FROZEN;
+        }
+        return (int) total;
     }
-}
 
+    public int getShards() {
+        return shards;
+    }
+
+    private boolean tryTake(int index, int qty) {
+        int spins = 0;
+        while (true) {
+            int available = counters.get(index);
+            if ((available & FROZEN) != 0) {
+                spins = await(spins);
+                continue;
+            }
+            if (available < qty) {
+                return false;
+            }
+            if (counters.compareAndSet(index, available, available - qty)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Slow path: freezes every counter, takes {@code qty} from the total if possible and
+     * publishes the rest evenly.
+     */
+    private boolean rebalanceAndTake(int qty) {
+        long total = freeze();
+        boolean taken = total >= qty;
+        publish(taken ? total - qty : total);
+        return taken;
+    }
+
+    /**
+     * Freezes every counter in index order.
+     *
+     * @return the total held by the frozen counters
+     */
+    private long freeze() {
+        long total = 0;
+        for (int i = 0; i < shards; i++) {
+            int index = index(i);
+            int spins = 0;
+            while (true) {
+                int available = counters.get(index);
+                if ((available & FROZEN) != 0) {
+                    spins = await(spins);
+                } else if (counters.compareAndSet(index, available, available | FROZEN)) {
+                    total += available;
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Spreads {@code quantity} evenly over the counters, unfreezing them.
+     */
+    private void publish(long quantity) {
+        long base = quantity / shards;
+        long remainder = quantity % shards;
+        for (int i = 0; i < shards; i++) {
+            counters.set(index(i), (int) (base + (i < remainder ? 1 : 0)));
+        }
+    }
+
+    private static int await(int spins) {
+        if (spins < 100) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return spins + 1;
+    }
+
+    private int home() {
+        if (shards == 1) {
+            return 0;
+        }
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) ((id >>> 32) % shards);
+    }
+
+    private int index(int shard) {
+        return shards == 1 ? 0 : shard * STRIDE;
+    }
+}
@@ -5,6 +5,9 @@ import br.com.libdomain.ports.RepositoryPort;
 import br.com.libdomain.strategy.EventStrategy;
 
 import java.util.Optional;
+import java.util.Set;
+
+import static br.com.backend.support.EventSchemas.ORDER_CREATED_ORDER_ID;
 
 public class OrderCreatedStrategy implements EventStrategy {
 
@@ -19,9 +22,14 @@ public class OrderCreatedStrategy implements EventStrategy {
         return "ORDER_CREATED".equals(event.type());
     }
 
+    @Override
+    public Set<String> supportedTypes() {
+        return Set.of("ORDER_CREATED");
+    }
+
     @Override
     public void execute(Event event) {
-        String orderId = (String) event.payload().get("orderId");
+        String orderId = ORDER_CREATED_ORDER_ID.getString(event.payload());
 
         Optional order = repositoryPort.findById(orderId);
 
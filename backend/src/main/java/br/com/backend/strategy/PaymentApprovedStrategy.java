@@ -1,17 +1,51 @@
 package br.com.backend.strategy;
 
+import br.com.backend.model.payment.EventRetention;
 import br.com.backend.model.payment.Payment;
 import br.com.backend.adapters.out.PaymentRepository;
+import br.com.backend.application.usecases.ReserveOrderStockUseCase;
 import br.com.backend.model.payment.PaymentStatus;
 import br.com.libdomain.model.Event;
+import br.com.libdomain.ports.BulkSaveResult;
+import br.com.libdomain.ports.IdempotencyStore;
 import br.com.libdomain.strategy.EventStrategy;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static br.com.backend.support.EventSchemas.PAYMENT_APPROVED_ORDER_ID;
+import static br.com.backend.support.EventSchemas.PAYMENT_APPROVED_PAYMENT_ID;
+
+/**
+ * Authorizes the payment of a PAYMENT_APPROVED event. When the event names the order it pays,
+ * that order's stock reservation is settled so it no longer expires.
+ *
+ * Both the single and the batch path skip events the {@link IdempotencyStore} already knows,
+ * apply the rest through {@link Payment#applyEvent} and mark an event processed only once its
+ * payment is stored. In a batch, a payment that fails to save does not keep the others' orders
+ * from being settled.
+ */
 public class PaymentApprovedStrategy implements EventStrategy {
 
     private final PaymentRepository paymentRepository;
+    private final ReserveOrderStockUseCase reserveOrderStock;
+    private final IdempotencyStore idempotencyStore;
+    private final EventRetention retention;
 
-    public PaymentApprovedStrategy(PaymentRepository paymentRepository) {
+    public PaymentApprovedStrategy(PaymentRepository paymentRepository,
+                                   ReserveOrderStockUseCase reserveOrderStock,
+                                   IdempotencyStore idempotencyStore,
+                                   EventRetention retention) {
         this.paymentRepository = paymentRepository;
+        this.reserveOrderStock = reserveOrderStock;
+        this.idempotencyStore = idempotencyStore;
+        this.retention = retention;
     }
 
     @Override
@@ -19,22 +53,113 @@ public class PaymentApprovedStrategy implements EventStrategy {
         return "PAYMENT_APPROVED".equals(event.type());
     }
 
+    @Override
+    public Set<String> supportedTypes() {
+        return Set.of("PAYMENT_APPROVED");
+    }
+
     @Override
     public void execute(Event event) {
-        String paymentId = (String) event.payload().get("paymentId");
+        if (!idempotencyStore.isProcessed(event.eventId())) {
+            apply(event);
+        } else {
+            System.out.println("Event ignored (duplicate): " + PAYMENT_APPROVED_PAYMENT_ID.getString(event.payload()));
+        }
+        // a redelivered approval still settles, in case the first delivery failed after the payment update
+        settle(event);
+    }
+
+    /**
+     * Loads all payments of the batch with one findAllById, applies their events in order
+     * and persists the changed ones with one saveAll, instead of one findById/save per event.
+     * The events of a payment that fails to save are applied again one by one through
+     * {@link PaymentRepository#update}, as {@link #execute} does. The orders of every payment
+     * that was stored are settled before the first failure left is rethrown.
+     */
+    @Override
+    public void executeBatch(List<Event> events) {
+        List<Event> pending = new ArrayList<>(events.size());
+        Set<String> paymentIds = new LinkedHashSet<>();
+        for (Event event : events) {
+            if (idempotencyStore.isProcessed(event.eventId())) {
+                System.out.println("Event ignored (duplicate): " + PAYMENT_APPROVED_PAYMENT_ID.getString(event.payload()));
+            } else {
+                pending.add(event);
+                paymentIds.add(PAYMENT_APPROVED_PAYMENT_ID.getString(event.payload()));
+            }
+        }
+
+        Map<String, Payment> payments = new LinkedHashMap<>(paymentRepository.findAllById(paymentIds));
+        Map<String, Payment> changed = new LinkedHashMap<>();
+        Map<String, List<Event>> eventsByPayment = new HashMap<>();
 
-        // Retrieve aggregate
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseGet(() -> new Payment(paymentId, PaymentStatus.CREATED));
+        for (Event event : pending) {
+            String paymentId = PAYMENT_APPROVED_PAYMENT_ID.getString(event.payload());
+            eventsByPayment.computeIfAbsent(paymentId, id -> new ArrayList<>()).add(event);
+            Payment payment = payments.computeIfAbsent(paymentId, id -> new Payment(id, PaymentStatus.CREATED, retention));
 
-        // Apply event (idempotent + state transition)
-        boolean applied = payment.applyEvent(event.eventId(), PaymentStatus.AUTHORIZED);
+            if (payment.applyEvent(event.eventId(), PaymentStatus.AUTHORIZED)) {
+                changed.put(paymentId, payment);
+            } else {
+                System.out.println("Event ignored (duplicate or invalid transition): " + paymentId);
+            }
+        }
+
+        BulkSaveResult<Payment> result = paymentRepository.saveAll(changed.values());
+        for (Payment payment : result.saved()) {
+            System.out.println("Payment approved: " + payment.getPaymentId());
+            eventsByPayment.get(payment.getPaymentId()).forEach(event -> idempotencyStore.markProcessed(event.eventId()));
+        }
+
+        RuntimeException failure = null;
+        Set<String> unsaved = new HashSet<>();
+        for (BulkSaveResult.Failure<Payment> failed : result.failures()) {
+            String paymentId = failed.entity().getPaymentId();
+            for (Event event : eventsByPayment.get(paymentId)) {
+                try {
+                    apply(event);
+                } catch (RuntimeException e) {
+                    unsaved.add(paymentId);
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+
+        for (Event event : events) {
+            if (!unsaved.contains(PAYMENT_APPROVED_PAYMENT_ID.getString(event.payload()))) {
+                settle(event);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Applies the event atomically against the stored aggregate and remembers it once stored.
+     */
+    private void apply(Event event) {
+        String paymentId = PAYMENT_APPROVED_PAYMENT_ID.getString(event.payload());
+        boolean applied = paymentRepository.update(
+                paymentId,
+                id -> new Payment(id, PaymentStatus.CREATED, retention),
+                payment -> payment.applyEvent(event.eventId(), PaymentStatus.AUTHORIZED)
+        );
 
         if (applied) {
-            paymentRepository.save(payment); // persist changes
+            idempotencyStore.markProcessed(event.eventId());
             System.out.println("Payment approved: " + paymentId);
         } else {
             System.out.println("Event ignored (duplicate or invalid transition): " + paymentId);
         }
     }
+
+    private void settle(Event event) {
+        String orderId = PAYMENT_APPROVED_ORDER_ID.getString(event.payload());
+        if (orderId != null) {
+            reserveOrderStock.settle(orderId);
+        }
+    }
 }
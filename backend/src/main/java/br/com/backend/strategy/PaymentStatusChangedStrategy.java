@@ -0,0 +1,55 @@
+package br.com.backend.strategy;
+
+import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
+import br.com.backend.application.usecases.ReserveOrderStockUseCase;
+import br.com.backend.model.payment.PaymentStatus;
+import br.com.libdomain.model.Event;
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.Set;
+
+import static br.com.backend.support.EventSchemas.PAYMENT_STATUS_CHANGED_ORDER_ID;
+import static br.com.backend.support.EventSchemas.PAYMENT_STATUS_CHANGED_PAYMENT_ID;
+import static br.com.backend.support.EventSchemas.PAYMENT_STATUS_CHANGED_STATUS;
+
+/**
+ * Applies a payment status change received from an inbound adapter (e.g. Kafka)
+ * through the idempotent payment use case.
+ * Payload: paymentId (String), status (PaymentStatus name), optional orderId (String).
+ * An AUTHORIZED or APPROVED payment that names its order settles the order's stock reservation.
+ */
+public class PaymentStatusChangedStrategy implements EventStrategy {
+
+    public static final String TYPE = "PAYMENT_STATUS_CHANGED";
+
+    private final ProcessPaymentEventUseCase useCase;
+    private final ReserveOrderStockUseCase reserveOrderStock;
+
+    public PaymentStatusChangedStrategy(ProcessPaymentEventUseCase useCase, ReserveOrderStockUseCase reserveOrderStock) {
+        this.useCase = useCase;
+        this.reserveOrderStock = reserveOrderStock;
+    }
+
+    @Override
+    public boolean supports(Event event) {
+        return TYPE.equals(event.type());
+    }
+
+    @Override
+    public Set<String> supportedTypes() {
+        return Set.of(TYPE);
+    }
+
+    @Override
+    public void execute(Event event) {
+        String paymentId = PAYMENT_STATUS_CHANGED_PAYMENT_ID.getString(event.payload());
+        PaymentStatus status = PaymentStatus.valueOf(PAYMENT_STATUS_CHANGED_STATUS.getString(event.payload()));
+
+        useCase.execute(event.eventId(), paymentId, status);
+
+        String orderId = PAYMENT_STATUS_CHANGED_ORDER_ID.getString(event.payload());
+        if (orderId != null && (status == PaymentStatus.AUTHORIZED || status == PaymentStatus.APPROVED)) {
+            reserveOrderStock.settle(orderId);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.backend.support;
+
+import br.com.libdomain.model.PayloadSchema;
+
+/**
+ * Payload schemas of the events handled by the backend strategies.
+ * Fields are resolved once here, so strategies read payloads by position.
+ */
+public final class EventSchemas {
+
+    public static final PayloadSchema PAYMENT_APPROVED = PayloadSchema.define("PAYMENT_APPROVED")
+            .objectField("paymentId")
+            .objectField("orderId")
+            .register();
+    public static final PayloadSchema.Field PAYMENT_APPROVED_PAYMENT_ID = PAYMENT_APPROVED.field("paymentId");
+    /**
+     * Optional: the order paid by this payment, whose stock reservation stops expiring.
+     */
+    public static final PayloadSchema.Field PAYMENT_APPROVED_ORDER_ID = PAYMENT_APPROVED.field("orderId");
+
+    public static final PayloadSchema PAYMENT_FAILED = PayloadSchema.define("PAYMENT_FAILED")
+            .objectField("paymentId")
+            .register();
+    public static final PayloadSchema.Field PAYMENT_FAILED_PAYMENT_ID = PAYMENT_FAILED.field("paymentId");
+
+    public static final PayloadSchema ORDER_CREATED = PayloadSchema.define("ORDER_CREATED")
+            .objectField("orderId")
+            .register();
+    public static final PayloadSchema.Field ORDER_CREATED_ORDER_ID = ORDER_CREATED.field("orderId");
+
+    public static final PayloadSchema PAYMENT_STATUS_CHANGED = PayloadSchema.define("PAYMENT_STATUS_CHANGED")
+            .objectField("paymentId")
+            .objectField("status")
+            .objectField("orderId")
+            .register();
+    public static final PayloadSchema.Field PAYMENT_STATUS_CHANGED_PAYMENT_ID = PAYMENT_STATUS_CHANGED.field("paymentId");
+    public static final PayloadSchema.Field PAYMENT_STATUS_CHANGED_STATUS = PAYMENT_STATUS_CHANGED.field("status");
+    /**
+     * Optional: the order paid by this payment, settled once the payment is AUTHORIZED or APPROVED.
+     */
+    public static final PayloadSchema.Field PAYMENT_STATUS_CHANGED_ORDER_ID = PAYMENT_STATUS_CHANGED.field("orderId");
+
+    private EventSchemas() {
+    }
+}
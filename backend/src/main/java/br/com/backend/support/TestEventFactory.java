@@ -2,23 +2,26 @@ package br.com.backend.support;
 
 import br.com.libdomain.model.Event;
 
-import java.util.Map;
-
 /**
  * Factory class to create test events for various scenarios.
  */
 public class TestEventFactory {
 
     public static Event orderCreated(String orderId) {
-        return Event.of("ORDER_CREATED", Map.of("orderId", orderId));
+        return Event.of("ORDER_CREATED", EventSchemas.ORDER_CREATED.payload()
+                .set(EventSchemas.ORDER_CREATED_ORDER_ID, orderId)
+                .build());
     }
 
     public static Event paymentApproved(String paymentId) {
-        return Event.of("PAYMENT_APPROVED", Map.of("paymentId", paymentId));
+        return Event.of("PAYMENT_APPROVED", EventSchemas.PAYMENT_APPROVED.payload()
+                .set(EventSchemas.PAYMENT_APPROVED_PAYMENT_ID, paymentId)
+                .build());
     }
 
     public static Event paymentFailed(String paymentId) {
-        return Event.of("PAYMENT_FAILED", Map.of("paymentId", paymentId));
+        return Event.of("PAYMENT_FAILED", EventSchemas.PAYMENT_FAILED.payload()
+                .set(EventSchemas.PAYMENT_FAILED_PAYMENT_ID, paymentId)
+                .build());
     }
 }
-
@@ -0,0 +1,80 @@
+package br.com.backend;
+
+import br.com.libdomain.model.CompactPayload;
+import br.com.libdomain.model.Event;
+import br.com.libdomain.model.EventIdGenerator;
+import br.com.libdomain.model.PayloadSchema;
+import br.com.libdomain.model.TimeOrderedEventIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventModelTest {
+
+    private static final PayloadSchema SCHEMA = PayloadSchema.define("TEST_PAYMENT_CAPTURED")
+            .objectField("paymentId")
+            .longField("amount")
+            .booleanField("partial")
+            .build();
+
+    @Test
+    @DisplayName("Compact payload behaves as a read-only map and reads primitives without boxing")
+    public void compactPayloadMapView() {
+        CompactPayload payload = SCHEMA.payload()
+                .set("paymentId", "p-1")
+                .setLong("amount", 1500L)
+                .build();
+
+        assertEquals(Map.of("paymentId", "p-1", "amount", 1500L), payload);
+        assertEquals(2, payload.size());
+        assertFalse(payload.containsKey("partial"));
+        assertNull(payload.get("unknown"));
+        assertEquals(1500L, payload.getLong(SCHEMA.field("amount")));
+        assertEquals("p-1", SCHEMA.field("paymentId").getString(payload));
+        assertEquals("p-2", SCHEMA.field("paymentId").getString(Map.of("paymentId", "p-2")));
+        assertThrows(UnsupportedOperationException.class, () -> payload.put("paymentId", "p-3"));
+    }
+
+    @Test
+    @DisplayName("Registering a type again returns the same schema only when its fields match")
+    public void schemaRegistration() {
+        PayloadSchema registered = PayloadSchema.define("TEST_REFUND_REQUESTED")
+                .objectField("paymentId")
+                .register();
+        assertSame(registered, PayloadSchema.define("TEST_REFUND_REQUESTED").objectField("paymentId").register());
+        assertSame(registered, PayloadSchema.forType("TEST_REFUND_REQUESTED"));
+        assertThrows(IllegalArgumentException.class,
+                () -> PayloadSchema.define("TEST_REFUND_REQUESTED").longField("paymentId").register());
+        assertThrows(IllegalArgumentException.class,
+                () -> PayloadSchema.define("TEST_REFUND_REQUESTED").objectField("paymentId").longField("amount").register());
+
+        CompactPayload payload = registered.payload().set(registered.field("paymentId"), "p-1").build();
+        assertEquals(Map.of("paymentId", "p-1"), payload);
+    }
+
+    @Test
+    @DisplayName("Time-ordered event IDs are v7, monotonic within a thread and carry their timestamp; other IDs carry none")
+    public void timeOrderedEventIds() {
+        EventIdGenerator generator = EventIdGenerator.timeOrdered();
+        long before = System.currentTimeMillis();
+
+        UUID previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = generator.nextId();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = next;
+        }
+
+        long created = TimeOrderedEventIdGenerator.timestampOf(previous);
+        assertTrue(created >= before);
+        assertTrue(Event.of("ANY", Map.of()).createdAtMillis() >= before);
+        assertEquals(-1, Event.of(EventIdGenerator.random(), "ANY", Map.of()).createdAtMillis());
+        assertEquals(-1, Event.of((UUID) null, "ANY", Map.of()).createdAtMillis());
+    }
+}
@@ -0,0 +1,431 @@
+package br.com.backend;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.router.AggregateKeyExtractor;
+import br.com.libdomain.router.Bulkhead;
+import br.com.libdomain.router.BulkheadStrategy;
+import br.com.libdomain.router.EventRouter;
+import br.com.libdomain.router.IndexedStrategySelector;
+import br.com.libdomain.router.InstrumentedStrategy;
+import br.com.libdomain.router.InstrumentedStrategySelector;
+import br.com.libdomain.router.OverflowPolicy;
+import br.com.libdomain.router.PartitionedEventRouter;
+import br.com.libdomain.router.RingBufferEventRouter;
+import br.com.libdomain.router.WaitStrategy;
+import br.com.libdomain.router.metrics.LatencyHistogram;
+import br.com.libdomain.router.metrics.RoutingMetrics;
+import br.com.libdomain.strategy.EventStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventRouterTest {
+
+    /**
+     * Records the sequence number of every event per aggregate, in execution order.
+     */
+    private static class RecordingStrategy implements EventStrategy {
+        final Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void execute(Event event) {
+            String key = (String) event.payload().get("paymentId");
+            seen.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add((Integer) event.payload().get("seq"));
+            threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public boolean supports(Event event) {
+            return "PAYMENT_APPROVED".equals(event.type());
+        }
+
+        @Override
+        public Set<String> supportedTypes() {
+            return Set.of("PAYMENT_APPROVED");
+        }
+    }
+
+    private static List<Event> interleavedEvents(int aggregates, int perAggregate) {
+        List<Event> events = new ArrayList<>();
+        for (int seq = 0; seq < perAggregate; seq++) {
+            for (int a = 0; a < aggregates; a++) {
+                events.add(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-" + a, "seq", seq)));
+            }
+        }
+        return events;
+    }
+
+    @Test
+    @DisplayName("Batch routing calls executeBatch once per strategy")
+    public void batchRoutingGroupsByStrategy() {
+        List<List<Event>> batches = new CopyOnWriteArrayList<>();
+        RecordingStrategy strategy = new RecordingStrategy() {
+            @Override
+            public void executeBatch(List<Event> events) {
+                batches.add(events);
+                super.executeBatch(events);
+            }
+        };
+        EventRouter router = new EventRouter(new IndexedStrategySelector(List.of(strategy)));
+
+        router.route(interleavedEvents(3, 4));
+
+        assertEquals(1, batches.size());
+        assertEquals(12, batches.get(0).size());
+        assertEquals(List.of(0, 1, 2, 3), strategy.seen.get("p-0"));
+
+        // an event without a type only reaches the strategies that decide dynamically
+        EventStrategy dynamic = new RecordingStrategy() {
+            @Override
+            public boolean supports(Event event) {
+                return event.type() == null;
+            }
+
+            @Override
+            public Set<String> supportedTypes() {
+                return Set.of();
+            }
+        };
+        IndexedStrategySelector selector = new IndexedStrategySelector(List.of(strategy, dynamic));
+        assertEquals(List.of(dynamic), selector.selectAll(Event.of(null, Map.of("paymentId", "p-0"))));
+        assertEquals(List.of(strategy), selector.selectAll(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-0"))));
+    }
+
+    @Test
+    @DisplayName("Partitioned router keeps per-aggregate order")
+    public void partitionedRouterKeepsPerAggregateOrder() {
+        RecordingStrategy strategy = new RecordingStrategy();
+        try (PartitionedEventRouter router = new PartitionedEventRouter(
+                new IndexedStrategySelector(List.of(strategy)),
+                AggregateKeyExtractor.payloadFields(List.of("paymentId")),
+                4)) {
+
+            router.route(interleavedEvents(32, 50));
+        }
+
+        assertEquals(32, strategy.seen.size());
+        strategy.seen.values().forEach(seqs -> {
+            assertEquals(50, seqs.size());
+            for (int i = 0; i < seqs.size(); i++) {
+                assertEquals(i, seqs.get(i));
+            }
+        });
+        assertTrue(strategy.threads.size() > 1);
+    }
+
+    @Test
+    @DisplayName("Re-entrant routing to another lane is rejected synchronously and queued asynchronously")
+    public void reentrantRoutingAcrossLanes() {
+        AtomicReference<PartitionedEventRouter> routerRef = new AtomicReference<>();
+        AtomicReference<RuntimeException> syncError = new AtomicReference<>();
+        AtomicReference<CompletableFuture<Void>> forwarded = new AtomicReference<>();
+        RecordingStrategy strategy = new RecordingStrategy() {
+            @Override
+            public void execute(Event event) {
+                super.execute(event);
+                Object target = event.payload().get("forwardTo");
+                if (target != null) {
+                    Event next = Event.of("PAYMENT_APPROVED", Map.of("paymentId", target, "seq", 0));
+                    try {
+                        routerRef.get().route(next);
+                    } catch (IllegalStateException e) {
+                        syncError.set(e);
+                    }
+                    forwarded.set(routerRef.get().routeAsync(next));
+                }
+            }
+        };
+
+        for (int maxInFlight : new int[]{2, 1}) {
+            try (PartitionedEventRouter router = new PartitionedEventRouter(
+                    new IndexedStrategySelector(List.of(strategy)),
+                    AggregateKeyExtractor.payloadFields(List.of("paymentId")),
+                    2, maxInFlight, OverflowPolicy.BLOCK)) {
+                routerRef.set(router);
+                syncError.set(null);
+                String source = "p-0";
+                String target = "p-1";
+                for (int i = 2; router.laneOf(Event.of("PAYMENT_APPROVED", Map.of("paymentId", target)))
+                        == router.laneOf(Event.of("PAYMENT_APPROVED", Map.of("paymentId", source))); i++) {
+                    target = "p-" + i;
+                }
+                strategy.seen.remove(target);
+
+                router.route(Event.of("PAYMENT_APPROVED", Map.of("paymentId", source, "seq", 0, "forwardTo", target)));
+
+                assertNotNull(syncError.get(), "a synchronous cross-lane route must be rejected");
+                assertTrue(syncError.get().getMessage().contains("routeAsync"));
+                if (maxInFlight == 2) {
+                    forwarded.get().join();
+                    assertEquals(List.of(0), strategy.seen.get(target));
+                } else {
+                    // the only permit is held by the source event: the lane fails fast instead of waiting for it
+                    CompletionException error = assertThrows(CompletionException.class, () -> forwarded.get().join());
+                    assertInstanceOf(RejectedExecutionException.class, error.getCause());
+                    assertNull(strategy.seen.get(target));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Async routing rejects events beyond max in-flight")
+    public void asyncRoutingRejectsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        EventStrategy blocking = new RecordingStrategy() {
+            @Override
+            public void execute(Event event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try (PartitionedEventRouter router = new PartitionedEventRouter(
+                new IndexedStrategySelector(List.of(blocking)),
+                AggregateKeyExtractor.payloadFields(List.of("paymentId")),
+                2, 1, OverflowPolicy.REJECT)) {
+
+            CompletableFuture<Void> first = router.routeAsync(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-1")));
+            CompletableFuture<Void> second = router.routeAsync(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-2")));
+
+            CompletionException error = assertThrows(CompletionException.class, second::join);
+            assertInstanceOf(RejectedExecutionException.class, error.getCause());
+
+            release.countDown();
+            first.join();
+            assertEquals(0, router.inFlight());
+        }
+    }
+
+    @Test
+    @DisplayName("Ring buffer router processes batches larger than the ring and propagates failures")
+    public void ringBufferRouterProcessesAllEvents() throws Exception {
+        RecordingStrategy strategy = new RecordingStrategy();
+        try (RingBufferEventRouter router = RingBufferEventRouter.start(
+                new IndexedStrategySelector(List.of(strategy)), 16, WaitStrategy.YIELD)) {
+
+            Thread[] producers = new Thread[4];
+            for (int p = 0; p < producers.length; p++) {
+                int producer = p;
+                producers[p] = new Thread(() -> {
+                    for (int seq = 0; seq < 100; seq++) {
+                        router.route(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-" + producer, "seq", seq)));
+                    }
+                });
+                producers[p].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            router.route(interleavedEvents(8, 10));
+
+            assertThrows(IllegalStateException.class, () -> router.route(Event.of("UNKNOWN", Map.of())));
+        }
+
+        for (int p = 0; p < 4; p++) {
+            List<Integer> seqs = strategy.seen.get("p-" + p);
+            assertEquals(110, seqs.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, seqs.get(i));
+            }
+        }
+        assertEquals(1, strategy.threads.size());
+
+        RecordingStrategy failing = new RecordingStrategy() {
+            @Override
+            public void execute(Event event) {
+                throw new AssertionError("boom");
+            }
+        };
+        try (RingBufferEventRouter router = RingBufferEventRouter.start(
+                new IndexedStrategySelector(List.of(failing)), 16, WaitStrategy.YIELD)) {
+            Event event = Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-0", "seq", 0));
+            // an Error reaches the caller and does not kill the consumer thread
+            for (int i = 0; i < 2; i++) {
+                IllegalStateException e = assertThrows(IllegalStateException.class, () -> router.route(event));
+                assertInstanceOf(AssertionError.class, e.getCause());
+            }
+            CompletionException async = assertThrows(CompletionException.class, () -> router.routeAsync(event).join());
+            assertInstanceOf(AssertionError.class, async.getCause().getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("Routing metrics count events, empty selections and strategy latency")
+    public void routingMetricsRecordCountersAndLatency() {
+        RoutingMetrics metrics = new RoutingMetrics(Set.of("PAYMENT_APPROVED"));
+        RecordingStrategy strategy = new RecordingStrategy();
+        EventRouter router = new EventRouter(new InstrumentedStrategySelector(
+                new IndexedStrategySelector(InstrumentedStrategy.wrapAll(List.of(strategy), metrics)), metrics));
+
+        router.route(interleavedEvents(2, 5));
+        for (int i = 0; i < 5; i++) {
+            router.route(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-9", "seq", i)));
+        }
+        assertThrows(IllegalStateException.class, () -> router.route(Event.of("UNKNOWN", Map.of())));
+        assertThrows(IllegalStateException.class, () -> router.route(Event.of(null, Map.of())));
+
+        assertEquals(15, metrics.types().get("PAYMENT_APPROVED").events());
+        // external type strings never create series of their own
+        assertEquals(Set.of("PAYMENT_APPROVED", RoutingMetrics.OTHER_TYPE), metrics.types().keySet());
+        assertEquals(2, metrics.types().get(RoutingMetrics.OTHER_TYPE).emptySelections());
+        assertEquals(2, metrics.emptySelections());
+        RoutingMetrics.StrategyStats stats = metrics.strategies().get("RecordingStrategy");
+        assertEquals(15, stats.executions());
+        // the batch of 10 is a single sample, next to the 5 single events
+        assertEquals(6, stats.latency().count());
+        assertTrue(stats.latency().valueAt(0.5) <= stats.latency().valueAt(0.999));
+    }
+
+    @Test
+    @DisplayName("Latency histogram percentiles stay within bucket precision")
+    public void latencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000, histogram.valueAt(0.5), 50_000 * 0.07);
+        assertEquals(99_000, histogram.valueAt(0.99), 99_000 * 0.07);
+        assertEquals(99_900, histogram.valueAt(0.999), 99_900 * 0.07);
+    }
+
+    @Test
+    @DisplayName("Bulkhead times out a slow strategy and sheds load when saturated")
+    public void bulkheadTimesOutAndShedsLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        EventStrategy slow = new RecordingStrategy() {
+            @Override
+            public void execute(Event event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try (Bulkhead bulkhead = new Bulkhead("slow",
+                new Bulkhead.Config(1, 0, Duration.ofMillis(100), false, OverflowPolicy.REJECT))) {
+            EventStrategy isolated = new BulkheadStrategy(slow, bulkhead);
+
+            // deferred: returns immediately, occupying the only slot
+            isolated.execute(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-1")));
+            assertThrows(RejectedExecutionException.class,
+                    () -> isolated.execute(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-2"))));
+            assertEquals(1, bulkhead.rejected());
+            release.countDown();
+        }
+
+        // deferred mode cannot reorder events of one aggregate
+        assertThrows(IllegalArgumentException.class,
+                () -> new Bulkhead.Config(4, 10, Duration.ofSeconds(1), false, OverflowPolicy.REJECT));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Bulkhead.Config(1, 10, Duration.ofSeconds(1), false, OverflowPolicy.CALLER_RUNS));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Bulkhead.Config(1, 10, null, true, OverflowPolicy.REJECT));
+
+        List<Event> processed = new CopyOnWriteArrayList<>();
+        EventStrategy failing = new RecordingStrategy() {
+            @Override
+            public void execute(Event event) {
+                if (event.payload().get("paymentId").equals("p-1")) {
+                    throw new IllegalArgumentException("boom");
+                }
+                processed.add(event);
+            }
+        };
+        List<Object> failedSubjects = new CopyOnWriteArrayList<>();
+        try (Bulkhead bulkhead = new Bulkhead("failing",
+                new Bulkhead.Config(1, 10, Duration.ofMillis(100), false, OverflowPolicy.REJECT),
+                (name, subject, failure) -> failedSubjects.add(subject))) {
+            EventStrategy isolated = new BulkheadStrategy(failing, bulkhead);
+            Event first = Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-1"));
+            Event second = Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-2"));
+            isolated.execute(first);
+            // the deferred failure is reported against its own event and never fails the next call
+            isolated.execute(second);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (processed.isEmpty() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertEquals(List.of(second), processed);
+            assertEquals(List.of(first), failedSubjects);
+            assertEquals(1, bulkhead.failed());
+        }
+
+        // BLOCK waits for a permit and hands over through the pool; once closed, it rejects
+        CountDownLatch unblock = new CountDownLatch(1);
+        EventStrategy blocking = new RecordingStrategy() {
+            @Override
+            public void execute(Event event) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        Bulkhead blockingBulkhead = new Bulkhead("blocking",
+                new Bulkhead.Config(1, 0, Duration.ofSeconds(5), false, OverflowPolicy.BLOCK));
+        EventStrategy isolatedBlocking = new BulkheadStrategy(blocking, blockingBulkhead);
+        isolatedBlocking.execute(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-1")));
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(
+                () -> isolatedBlocking.execute(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-2"))));
+        Thread.sleep(50);
+        assertFalse(waiting.isDone(), "blocked while the only permit is taken");
+        unblock.countDown();
+        waiting.get(5, TimeUnit.SECONDS);
+        blockingBulkhead.close();
+        assertThrows(RejectedExecutionException.class,
+                () -> isolatedBlocking.execute(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-3"))));
+
+        CountDownLatch finish = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        EventStrategy hanging = new RecordingStrategy() {
+            @Override
+            public void execute(Event event) {
+                try {
+                    finish.await();
+                    if (!Thread.currentThread().isInterrupted()) {
+                        finished.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try (Bulkhead bulkhead = new Bulkhead("hanging",
+                new Bulkhead.Config(1, 1, Duration.ofMillis(50), true, OverflowPolicy.REJECT))) {
+            EventStrategy isolated = new BulkheadStrategy(hanging, bulkhead);
+
+            assertThrows(IllegalStateException.class,
+                    () -> isolated.execute(Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-1"))));
+            assertEquals(1, bulkhead.timedOut());
+            // the timed-out strategy was not interrupted and runs to the end
+            finish.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package br.com.backend;
+
+import br.com.backend.adapters.out.OrderRepositoryInMemory;
+import br.com.backend.adapters.out.PaymentRepositoryInMemory;
+import br.com.backend.adapters.out.RepositoryJournals;
+import br.com.backend.adapters.out.StockRepositoryInMemory;
+import br.com.backend.model.order.Order;
+import br.com.backend.model.order.OrderStatus;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentStatus;
+import br.com.backend.model.stock.Stock;
+import br.com.libdomain.ports.BulkSaveResult;
+import br.com.libintegration.journal.FsyncPolicy;
+import br.com.libintegration.journal.Journal;
+import br.com.libintegration.journal.JournalConfig;
+import br.com.libintegration.journal.RecordBuffer;
+import br.com.libintegration.journal.Snapshots;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    private static final JournalConfig SMALL_SEGMENTS =
+            new JournalConfig(4096, FsyncPolicy.GROUP_COMMIT, Duration.ofMillis(10));
+
+    @Test
+    @DisplayName("Journal rolls segments, replays every record in order and stops at a torn tail")
+    public void appendRollAndReplay(@TempDir Path directory) throws IOException {
+        try (Journal journal = Journal.open(directory, SMALL_SEGMENTS)) {
+            RecordBuffer record = new RecordBuffer(16);
+            for (int i = 0; i < 1_000; i++) {
+                journal.commit(journal.append(record.clear().putString("record-" + i).putInt(i).flip()));
+            }
+            assertTrue(journal.segmentCount() > 1);
+        }
+
+        try (Journal journal = Journal.open(directory, SMALL_SEGMENTS)) {
+            journal.commit(journal.append(new RecordBuffer(16).putString("last").putInt(1_000).flip()));
+        }
+
+        // simulate a crash in the middle of a record: length written, payload/CRC garbage
+        Path last;
+        try (var files = Files.list(directory)) {
+            last = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int position = 0;
+            while (buffer.getInt(position) != 0) {
+                position += 8 + buffer.getInt(position);
+            }
+            buffer.putInt(position, 12).putInt(position + 4, 0xCAFE);
+        }
+
+        List<Integer> replayed = new ArrayList<>();
+        try (Journal journal = Journal.open(directory, SMALL_SEGMENTS)) {
+            journal.replay(buffer -> {
+                RecordBuffer.getString(buffer);
+                replayed.add(buffer.getInt());
+            });
+            // the torn record is overwritten by the next append
+            journal.commit(journal.append(new RecordBuffer(16).putString("after").putInt(1_001).flip()));
+        }
+        assertEquals(1_001, replayed.size());
+        for (int i = 0; i < replayed.size(); i++) {
+            assertEquals(i, replayed.get(i));
+        }
+
+        List<Integer> reopened = new ArrayList<>();
+        try (Journal journal = Journal.open(directory, SMALL_SEGMENTS)) {
+            journal.replay(buffer -> {
+                RecordBuffer.getString(buffer);
+                reopened.add(buffer.getInt());
+            });
+        }
+        assertEquals(1_002, reopened.size());
+        assertEquals(1_001, reopened.get(1_001));
+    }
+
+    @Test
+    @DisplayName("Snapshots taken under concurrent writes plus the journal tail rebuild the exact state")
+    public void snapshotPlusTail(@TempDir Path directory) throws Exception {
+        JournalConfig config = new JournalConfig(4096, FsyncPolicy.PERIODIC, Duration.ofMillis(10));
+        try (RepositoryJournals journals = RepositoryJournals.open(directory, config)) {
+            PaymentRepositoryInMemory payments = new PaymentRepositoryInMemory(journals);
+            StockRepositoryInMemory stock = new StockRepositoryInMemory(journals);
+            for (int i = 0; i < 16; i++) {
+                stock.save(new Stock("sku-" + i, 1_000));
+            }
+
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        payments.update("p-" + (i % 64), id -> new Payment(id, PaymentStatus.CREATED),
+                                payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED));
+                        stock.update("sku-" + ((i + thread) % 16), id -> new Stock(id, 0), s -> s.reserve(1));
+                    }
+                }));
+            }
+            int snapshots = 0;
+            while (writers.stream().anyMatch(Thread::isAlive)) {
+                if (journals.snapshotAll() > 0) {
+                    snapshots++;
+                }
+                Thread.sleep(5);
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            assertTrue(snapshots >= 2);
+            // tail written after the last snapshot
+            payments.update("p-0", id -> new Payment(id, PaymentStatus.CREATED),
+                    payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.APPROVED));
+            assertFalse(Files.exists(directory.resolve("payments").resolve(String.format("segment-%019d.log", 0))));
+
+            // a second instance recovers while the first never shut down, as after a crash
+            try (RepositoryJournals recovered = RepositoryJournals.open(directory, config)) {
+                PaymentRepositoryInMemory reloadedPayments = new PaymentRepositoryInMemory(recovered);
+                StockRepositoryInMemory reloadedStock = new StockRepositoryInMemory(recovered);
+                for (int i = 0; i < 64; i++) {
+                    Payment expected = payments.findById("p-" + i).orElseThrow();
+                    Payment actual = reloadedPayments.findById("p-" + i).orElseThrow();
+                    assertEquals(expected.getStatus(), actual.getStatus());
+                    assertEquals(expected.getVersion(), actual.getVersion());
+                    assertEquals(expected.getProcessedEventIds(), actual.getProcessedEventIds());
+                }
+                int reserved = 0;
+                for (int i = 0; i < 16; i++) {
+                    int quantity = reloadedStock.findById("sku-" + i).orElseThrow().getQuantity();
+                    assertEquals(stock.findById("sku-" + i).orElseThrow().getQuantity(), quantity);
+                    reserved += 1_000 - quantity;
+                }
+                assertEquals(8_000, reserved);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshots are mapped chunk by chunk; a corrupted chunk falls back to the previous snapshot")
+    public void snapshotChunks(@TempDir Path directory) throws IOException {
+        RecordBuffer record = new RecordBuffer(32);
+        // ~2.4 MB of records, so the snapshot spans several 1 MB chunks
+        Consumer<Consumer<ByteBuffer>> source = sink -> {
+            for (int i = 0; i < 100_000; i++) {
+                sink.accept(record.clear().putString("record-" + i).putInt(i).flip());
+            }
+        };
+        Snapshots.write(directory, 10, source);
+        Snapshots.write(directory, 20, source);
+
+        Map<String, Integer> loaded = new ConcurrentHashMap<>();
+        Consumer<ByteBuffer> consumer = buffer -> loaded.put(RecordBuffer.getString(buffer), buffer.getInt());
+        assertEquals(20, Snapshots.load(directory, consumer).orElseThrow());
+        assertEquals(100_000, loaded.size());
+        assertEquals(99_999, loaded.get("record-99999"));
+
+        Path newest;
+        try (var files = Files.list(directory)) {
+            newest = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, 1_500_000);
+            b.put(0, (byte) ~b.get(0));
+            channel.write(b.flip(), 1_500_000);
+        }
+        loaded.clear();
+        assertEquals(10, Snapshots.load(directory, consumer).orElseThrow());
+        assertEquals(100_000, loaded.size());
+    }
+
+    @Test
+    @DisplayName("In-memory repositories rebuild their state from the journal on startup")
+    public void repositoriesSurviveRestart(@TempDir Path directory) {
+        UUID authorized = UUID.randomUUID();
+        try (RepositoryJournals journals = RepositoryJournals.open(directory, SMALL_SEGMENTS)) {
+            PaymentRepositoryInMemory payments = new PaymentRepositoryInMemory(journals);
+            payments.update("p-1", id -> new Payment(id, PaymentStatus.CREATED),
+                    payment -> payment.applyEvent(authorized, PaymentStatus.AUTHORIZED));
+            Payment payment = payments.findById("p-1").orElseThrow();
+            payment.applyEvent(UUID.randomUUID(), PaymentStatus.APPROVED);
+            payments.save(payment);
+
+            Order order = new Order("o-1");
+            order.addItem("sku-1", 2);
+            order.applyStatus(OrderStatus.CONFIRMED);
+            new OrderRepositoryInMemory(journals).save(order);
+
+            StockRepositoryInMemory stock = new StockRepositoryInMemory(journals);
+            stock.save(new Stock("sku-1", 10));
+            stock.update("sku-1", id -> new Stock(id, 0), s -> s.reserve(2));
+        }
+
+        try (RepositoryJournals journals = RepositoryJournals.open(directory, SMALL_SEGMENTS)) {
+            Payment payment = new PaymentRepositoryInMemory(journals).findById("p-1").orElseThrow();
+            assertEquals(PaymentStatus.APPROVED, payment.getStatus());
+            assertEquals(2, payment.getVersion());
+            assertEquals(2, payment.getProcessedEventCount());
+            assertFalse(payment.applyEvent(authorized, PaymentStatus.AUTHORIZED));
+
+            Order order = new OrderRepositoryInMemory(journals).findById("o-1").orElseThrow();
+            assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+            assertEquals(Map.of("sku-1", 2), order.getItems());
+
+            assertEquals(8, new StockRepositoryInMemory(journals).findById("sku-1").orElseThrow().getQuantity());
+        }
+    }
+
+    @Test
+    @DisplayName("Bulk saves report per-entity failures, keep and journal the rest; bulk reads omit missing ids")
+    public void bulkSavePartialFailure(@TempDir Path directory) {
+        try (RepositoryJournals journals = RepositoryJournals.open(directory, SMALL_SEGMENTS)) {
+            OrderRepositoryInMemory orders = new OrderRepositoryInMemory(journals);
+            Order broken = new Order(null);
+            BulkSaveResult<Order> orderResult = orders.saveAll(List.of(new Order("o-1"), broken, new Order("o-2")));
+            assertEquals(List.of("o-1", "o-2"), orderResult.saved().stream().map(Order::getOrderId).toList());
+            assertEquals(1, orderResult.failures().size());
+            assertSame(broken, orderResult.failures().get(0).entity());
+            assertThrows(NullPointerException.class, orderResult::throwIfFailed);
+
+            StockRepositoryInMemory stock = new StockRepositoryInMemory(journals);
+            BulkSaveResult<Stock> stockResult =
+                    stock.saveAll(List.of(new Stock("sku-1", 5), new Stock(null, 1), new Stock("sku-2", 7)));
+            assertEquals(2, stockResult.saved().size());
+            assertFalse(stockResult.isSuccess());
+
+            PaymentRepositoryInMemory payments = new PaymentRepositoryInMemory(journals);
+            payments.save(new Payment("p-1", PaymentStatus.CREATED));
+            Payment stale = new Payment("p-1", PaymentStatus.AUTHORIZED);
+            BulkSaveResult<Payment> paymentResult = payments.saveAll(List.of(
+                    stale, new Payment(null, PaymentStatus.CREATED), new Payment("p-2", PaymentStatus.AUTHORIZED)));
+            assertEquals(List.of("p-2"), paymentResult.saved().stream().map(Payment::getPaymentId).toList());
+            assertEquals(2, paymentResult.failures().size());
+            assertInstanceOf(OptimisticLockException.class, paymentResult.failures().get(0).error());
+            assertInstanceOf(NullPointerException.class, paymentResult.failures().get(1).error());
+        }
+
+        // what was saved before and after a failure is durable
+        try (RepositoryJournals journals = RepositoryJournals.open(directory, SMALL_SEGMENTS)) {
+            assertEquals(List.of("o-2", "o-1"), List.copyOf(new OrderRepositoryInMemory(journals)
+                    .findAllById(List.of("o-2", "missing", "o-1")).keySet()));
+            Map<String, Stock> stock = new StockRepositoryInMemory(journals).findAllById(List.of("sku-1", "sku-2", "sku-3"));
+            assertEquals(List.of("sku-1", "sku-2"), List.copyOf(stock.keySet()));
+            assertEquals(7, stock.get("sku-2").getQuantity());
+            Map<String, Payment> payments = new PaymentRepositoryInMemory(journals).findAllById(List.of("p-1", "p-2", "p-3"));
+            assertEquals(PaymentStatus.CREATED, payments.get("p-1").getStatus());
+            assertEquals(PaymentStatus.AUTHORIZED, payments.get("p-2").getStatus());
+            assertEquals(2, payments.size());
+        }
+    }
+
+    @Test
+    @DisplayName("A rejected order or stock update changes neither the stored entity nor the journal")
+    public void rejectedUpdateLeavesNoTrace(@TempDir Path directory) {
+        try (RepositoryJournals journals = RepositoryJournals.open(directory, SMALL_SEGMENTS)) {
+            OrderRepositoryInMemory orders = new OrderRepositoryInMemory(journals);
+            Order order = new Order("o-1");
+            order.addItem("sku-1", 2);
+            order.applyStatus(OrderStatus.CONFIRMED);
+            orders.save(order);
+            StockRepositoryInMemory stock = new StockRepositoryInMemory(journals);
+            stock.save(Stock.sharded("sku-1", 10, 4));
+
+            // the domain methods reject without touching the entity, as update() requires of a mutator returning false
+            assertFalse(orders.update("o-1", Order::new, o -> o.applyStatus(OrderStatus.NEW)));
+            assertFalse(stock.update("sku-1", id -> new Stock(id, 0), s -> s.reserve(11)));
+            assertFalse(orders.update("o-2", Order::new, o -> o.applyStatus(OrderStatus.SHIPPED)));
+
+            assertEquals(OrderStatus.CONFIRMED, orders.findById("o-1").orElseThrow().getStatus());
+            assertEquals(10, stock.findById("sku-1").orElseThrow().getQuantity());
+            assertTrue(orders.findById("o-2").isEmpty(), "a rejected new order is not inserted");
+            assertTrue(orders.update("o-1", Order::new, o -> o.applyStatus(OrderStatus.CANCELLED)));
+        }
+
+        try (RepositoryJournals journals = RepositoryJournals.open(directory, SMALL_SEGMENTS)) {
+            OrderRepositoryInMemory orders = new OrderRepositoryInMemory(journals);
+            assertEquals(OrderStatus.CANCELLED, orders.findById("o-1").orElseThrow().getStatus());
+            assertTrue(orders.findById("o-2").isEmpty());
+            assertEquals(10, new StockRepositoryInMemory(journals).findById("sku-1").orElseThrow().getQuantity());
+        }
+    }
+}
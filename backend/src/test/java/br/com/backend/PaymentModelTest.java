@@ -0,0 +1,133 @@
+package br.com.backend;
+
+import br.com.backend.adapters.out.PaymentRepositoryInMemory;
+import br.com.backend.application.usecases.ConcurrencyPolicy;
+import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
+import br.com.backend.model.order.OrderStatus;
+import br.com.backend.model.payment.EventRetention;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentStatus;
+import br.com.backend.model.payment.ProcessedEventIds;
+import br.com.libdomain.ports.IdempotencyStore;
+import br.com.libdomain.state.StateMachine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentModelTest {
+
+    @Test
+    @DisplayName("Processed event IDs keep only the last N events, match a reference set and never change once built")
+    public void processedEventIdsRetention() {
+        int maxEvents = 50;
+        ProcessedEventIds ids = new ProcessedEventIds(EventRetention.lastEvents(maxEvents));
+        ProcessedEventIds early = null;
+        Deque<UUID> expected = new ArrayDeque<>();
+        Set<UUID> evicted = new HashSet<>();
+        List<UUID> all = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5_000; i++) {
+            UUID id = all.isEmpty() || random.nextInt(4) != 0
+                    ? new UUID(random.nextLong(), random.nextLong())
+                    : all.get(random.nextInt(all.size()));
+            boolean known = expected.contains(id);
+
+            ProcessedEventIds added = ids.add(id);
+            assertEquals(known, added == ids);
+            ids = added;
+            if (i == 10) {
+                early = ids;
+            }
+            if (!known) {
+                all.add(id);
+                expected.addLast(id);
+                if (expected.size() > maxEvents) {
+                    evicted.add(expected.removeFirst());
+                }
+            }
+        }
+
+        ProcessedEventIds last = ids;
+        assertEquals(maxEvents, last.size());
+        expected.forEach(id -> assertTrue(last.contains(id)));
+        evicted.stream().filter(id -> !expected.contains(id)).forEach(id -> assertFalse(last.contains(id)));
+
+        // earlier versions are untouched by later additions and evictions
+        assertTrue(early.size() <= 11);
+        ProcessedEventIds snapshot = early;
+        all.subList(0, 3).forEach(id -> assertTrue(snapshot.contains(id)));
+    }
+
+    @Test
+    @DisplayName("Processed event IDs outside the time window are no longer duplicates, even before the next add evicts them")
+    public void processedEventIdsWindow() throws InterruptedException {
+        ProcessedEventIds ids = new ProcessedEventIds(EventRetention.within(Duration.ofMillis(100)));
+        UUID expiring = UUID.randomUUID();
+        ids = ids.add(expiring);
+        assertTrue(ids.contains(expiring));
+        assertSame(ids, ids.add(expiring));
+
+        Thread.sleep(150);
+        ProcessedEventIds idle = ids;
+        assertFalse(idle.contains(expiring));
+        assertEquals(Set.of(), idle.toStringSet());
+        idle.forEach(id -> fail("expired id visited: " + id));
+        assertEquals(1, idle.size());
+
+        // adding it again evicts the expired entry first
+        ProcessedEventIds readded = idle.add(expiring);
+        assertNotSame(idle, readded);
+        assertTrue(readded.contains(expiring));
+        assertEquals(1, readded.size());
+        assertEquals(Set.of(expiring.toString()), readded.toStringSet());
+    }
+
+    @Test
+    @DisplayName("applyEvent stays idempotent with the compact history and copies are independent")
+    public void applyEventIdempotency() {
+        Payment payment = new Payment("payment-1", PaymentStatus.CREATED);
+        UUID eventId = UUID.randomUUID();
+
+        assertTrue(payment.applyEvent(eventId, PaymentStatus.AUTHORIZED));
+        assertFalse(payment.applyEvent(eventId, PaymentStatus.AUTHORIZED));
+
+        Payment copy = payment.copy();
+        assertTrue(copy.applyEvent(UUID.randomUUID(), PaymentStatus.APPROVED));
+        assertEquals(PaymentStatus.AUTHORIZED, payment.getStatus());
+        assertEquals(Set.of(eventId.toString()), payment.getProcessedEventIds());
+        assertEquals(2, copy.getProcessedEventCount());
+    }
+
+    @Test
+    @DisplayName("Compiled state machine keeps the transition rules; listeners see committed transitions only")
+    public void stateMachine() {
+        assertTrue(PaymentStatus.CREATED.canTransitionTo(PaymentStatus.APPROVED));
+        assertTrue(PaymentStatus.AUTHORIZED.canTransitionTo(PaymentStatus.AUTHORIZED));
+        assertFalse(PaymentStatus.APPROVED.canTransitionTo(PaymentStatus.AUTHORIZED));
+        assertFalse(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.REFUNDED));
+        assertEquals(List.of(OrderStatus.SHIPPED), OrderStatus.machine().targetsOf(OrderStatus.SHIPPED));
+
+        // the use case reports what the repository stored, not what a copy validated
+        List<String> seen = new ArrayList<>();
+        ProcessPaymentEventUseCase useCase = new ProcessPaymentEventUseCase(new PaymentRepositoryInMemory(),
+                IdempotencyStore.none(), ConcurrencyPolicy.DEFAULT, EventRetention.unbounded(),
+                List.of((from, to) -> seen.add(from + "->" + to)));
+        useCase.execute(UUID.randomUUID(), "pay-1", PaymentStatus.AUTHORIZED);
+        useCase.execute(UUID.randomUUID(), "pay-1", PaymentStatus.AUTHORIZED);
+        useCase.execute(UUID.randomUUID(), "pay-1", PaymentStatus.REFUNDED);
+        useCase.execute(UUID.randomUUID(), "pay-1", PaymentStatus.APPROVED);
+        assertEquals(List.of("CREATED->AUTHORIZED", "AUTHORIZED->APPROVED"), seen);
+    }
+}
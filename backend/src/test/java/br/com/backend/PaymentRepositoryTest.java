@@ -0,0 +1,179 @@
+package br.com.backend;
+
+import br.com.backend.adapters.out.OrderRepositoryInMemory;
+import br.com.backend.adapters.out.PaymentRepository;
+import br.com.backend.adapters.out.PaymentRepositoryEventSourced;
+import br.com.backend.adapters.out.PaymentRepositoryInMemory;
+import br.com.backend.adapters.out.PaymentRepositoryOffHeap;
+import br.com.backend.config.PersistenceConfig;
+import br.com.backend.config.PersistenceProperties;
+import br.com.backend.model.order.Order;
+import br.com.backend.model.order.OrderStatus;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentChange;
+import br.com.backend.model.payment.PaymentStatus;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentRepositoryTest {
+
+    @Test
+    @DisplayName("Event-sourced repository appends accepted transitions and rebuilds payments from snapshot + tail")
+    public void eventSourcedReplay() {
+        PaymentRepositoryEventSourced repository = new PaymentRepositoryEventSourced(3);
+        List<UUID> eventIds = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            UUID eventId = UUID.randomUUID();
+            eventIds.add(eventId);
+            assertTrue(repository.update("p-1", id -> new Payment(id, PaymentStatus.CREATED),
+                    payment -> payment.applyEvent(eventId, PaymentStatus.AUTHORIZED)));
+        }
+        // duplicate and invalid transitions are not appended
+        assertFalse(repository.update("p-1", id -> new Payment(id, PaymentStatus.CREATED),
+                payment -> payment.applyEvent(eventIds.get(0), PaymentStatus.AUTHORIZED)));
+        assertFalse(repository.update("p-1", id -> new Payment(id, PaymentStatus.CREATED),
+                payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.REFUNDED)));
+
+        Payment loaded = repository.findById("p-1").orElseThrow();
+        assertEquals(PaymentStatus.AUTHORIZED, loaded.getStatus());
+        assertEquals(10, loaded.getVersion());
+        assertEquals(10, loaded.getProcessedEventCount());
+        assertTrue(loaded.getUncommittedChanges().isEmpty());
+        assertEquals(eventIds, repository.eventsOf("p-1").stream().map(PaymentChange::eventId).toList());
+
+        // save appends the pending changes and checks the loaded version
+        Payment stale = repository.findById("p-1").orElseThrow();
+        assertTrue(loaded.applyEvent(UUID.randomUUID(), PaymentStatus.APPROVED));
+        repository.save(loaded);
+        assertTrue(stale.applyEvent(UUID.randomUUID(), PaymentStatus.FAILED));
+        assertThrows(OptimisticLockException.class, () -> repository.save(stale));
+
+        Payment approved = repository.findById("p-1").orElseThrow();
+        assertEquals(PaymentStatus.APPROVED, approved.getStatus());
+        assertEquals(11, approved.getVersion());
+        assertFalse(approved.applyEvent(eventIds.get(5), PaymentStatus.REFUNDED));
+        assertTrue(repository.findById("unknown").isEmpty());
+        assertEquals(List.of("p-1"), List.copyOf(repository.findAllById(List.of("unknown", "p-1")).keySet()));
+    }
+
+    @Test
+    @DisplayName("The journal is refused with payment repositories that do not write to it")
+    public void journalRequiresInMemoryPayments() {
+        PersistenceProperties props = new PersistenceProperties();
+        props.getJournal().setEnabled(true);
+        for (String repository : List.of("event-sourced", "off-heap")) {
+            assertThrows(IllegalStateException.class, () -> new PersistenceConfig().repositoryJournals(props, repository));
+        }
+        props.getJournal().setEnabled(false);
+        assertNotNull(new PersistenceConfig().repositoryJournals(props, "off-heap"));
+    }
+
+    @Test
+    @DisplayName("Off-heap repository checks versions by CAS, keeps a bounded dedup window and survives contention")
+    public void offHeapStore() {
+        PaymentRepositoryOffHeap repository = new PaymentRepositoryOffHeap(100_000, 4, 16);
+        assertTrue(repository.findById("p-1").isEmpty());
+        assertFalse(repository.update("p-1", id -> new Payment(id, PaymentStatus.CREATED), payment -> false));
+        assertTrue(repository.findById("p-1").isEmpty());
+
+        List<UUID> eventIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            UUID eventId = UUID.randomUUID();
+            eventIds.add(eventId);
+            repository.update("p-1", id -> new Payment(id, PaymentStatus.CREATED),
+                    payment -> payment.applyEvent(eventId, PaymentStatus.AUTHORIZED));
+        }
+        Payment loaded = repository.findById("p-1").orElseThrow();
+        assertEquals(6, loaded.getVersion());
+        assertEquals(4, loaded.getProcessedEventCount());
+        // only the last 4 event IDs are kept
+        assertFalse(loaded.applyEvent(eventIds.get(5), PaymentStatus.APPROVED));
+        assertTrue(loaded.getProcessedEventIds().contains(eventIds.get(2).toString()));
+        assertFalse(loaded.getProcessedEventIds().contains(eventIds.get(1).toString()));
+
+        Payment stale = repository.findById("p-1").orElseThrow();
+        assertTrue(loaded.applyEvent(UUID.randomUUID(), PaymentStatus.APPROVED));
+        repository.save(loaded);
+        assertTrue(stale.applyEvent(UUID.randomUUID(), PaymentStatus.FAILED));
+        assertThrows(OptimisticLockException.class, () -> repository.save(stale));
+        assertEquals(PaymentStatus.APPROVED, repository.findById("p-1").orElseThrow().getStatus());
+        // an id that could never be stored is simply absent; storing it is still an error
+        assertTrue(repository.findById("x".repeat(17)).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repository.update("x".repeat(17),
+                id -> new Payment(id, PaymentStatus.CREATED), payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED)));
+
+        // concurrent updates on a few hot keys: every applied event bumps the version exactly once
+        IntStream.range(0, 8_000).parallel().forEach(i ->
+                repository.update("hot-" + (i % 8), id -> new Payment(id, PaymentStatus.CREATED),
+                        payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED)));
+        for (int k = 0; k < 8; k++) {
+            assertEquals(1_000, repository.findById("hot-" + k).orElseThrow().getVersion());
+        }
+        assertEquals(8, repository.countByStatus(PaymentStatus.AUTHORIZED));
+        // only stored payments hold a slot: neither rejected mutators nor lost insert races leak one
+        assertEquals(9, repository.reservedSlots());
+
+        PaymentRepositoryOffHeap small = new PaymentRepositoryOffHeap(8, 4, 16);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(small.update("rejected-" + i, id -> new Payment(id, PaymentStatus.CREATED),
+                    payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.REFUNDED)));
+        }
+        assertEquals(0, small.reservedSlots());
+        for (int round = 0; round < 200; round++) {
+            String paymentId = "race-" + (round % 4);
+            IntStream.range(0, 4).parallel().forEach(i ->
+                    small.update(paymentId, id -> new Payment(id, PaymentStatus.CREATED),
+                            payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED)));
+        }
+        assertEquals(4, small.reservedSlots());
+        assertEquals(200, small.findById("race-0").orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Status indexes follow every save and answer findByStatus/countByStatus without scanning")
+    public void statusIndexes() {
+        for (PaymentRepository repository : List.of(new PaymentRepositoryInMemory(),
+                new PaymentRepositoryEventSourced(3), new PaymentRepositoryOffHeap(4_096, 8, 16))) {
+            IntStream.range(0, 1_000).parallel().forEach(i -> {
+                String paymentId = "p-" + i;
+                repository.update(paymentId, id -> new Payment(id, PaymentStatus.CREATED),
+                        payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED));
+                if (i % 4 == 0) {
+                    repository.update(paymentId, id -> new Payment(id, PaymentStatus.CREATED),
+                            payment -> payment.applyEvent(UUID.randomUUID(), PaymentStatus.APPROVED));
+                }
+            });
+            Payment refunded = repository.findById("p-0").orElseThrow();
+            refunded.applyEvent(UUID.randomUUID(), PaymentStatus.REFUNDED);
+            repository.save(refunded);
+
+            assertEquals(750, repository.countByStatus(PaymentStatus.AUTHORIZED));
+            assertEquals(249, repository.countByStatus(PaymentStatus.APPROVED));
+            assertEquals(1, repository.countByStatus(PaymentStatus.REFUNDED));
+            assertEquals(0, repository.countByStatus(PaymentStatus.CREATED));
+            List<Payment> approved = repository.findByStatus(PaymentStatus.APPROVED);
+            assertEquals(249, approved.size());
+            assertTrue(approved.stream().allMatch(p -> p.getStatus() == PaymentStatus.APPROVED));
+            assertEquals("p-0", repository.findByStatus(PaymentStatus.REFUNDED).get(0).getPaymentId());
+        }
+
+        OrderRepositoryInMemory orders = new OrderRepositoryInMemory();
+        for (int i = 0; i < 10; i++) {
+            orders.save(new Order("o-" + i));
+        }
+        Order order = orders.findById("o-3").orElseThrow();
+        order.applyStatus(OrderStatus.CONFIRMED);
+        orders.save(order);
+        assertEquals(9, orders.countByStatus(OrderStatus.NEW));
+        assertEquals(List.of(order), orders.findByStatus(OrderStatus.CONFIRMED));
+    }
+}
@@ -0,0 +1,147 @@
+package br.com.backend;
+
+import br.com.backend.adapters.out.PaymentRepositoryInMemory;
+import br.com.backend.application.usecases.ConcurrencyPolicy;
+import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
+import br.com.backend.model.payment.EventRetention;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentStatus;
+import br.com.libdomain.ports.IdempotencyStore;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessPaymentEventUseCaseTest {
+
+    /**
+     * Fails the next {@code failures} updates with a version conflict, and tracks how many updates overlap.
+     */
+    private static class ConflictingRepository extends PaymentRepositoryInMemory {
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        @Override
+        public boolean update(String paymentId, Function<String, Payment> factory, Predicate<Payment> mutator) {
+            calls.incrementAndGet();
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.yield();
+                if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new OptimisticLockException("version conflict on " + paymentId);
+                }
+                return super.update(paymentId, factory, mutator);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    private static ProcessPaymentEventUseCase useCase(ConflictingRepository repository, ConcurrencyPolicy policy) {
+        return new ProcessPaymentEventUseCase(repository, IdempotencyStore.none(), policy,
+                EventRetention.unbounded(), List.of());
+    }
+
+    private static ConcurrencyPolicy policy(ConcurrencyPolicy.Mode mode, int stripes, int maxAttempts) {
+        return new ConcurrencyPolicy(mode, stripes, maxAttempts, Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Conflicts are retried up to maxAttempts, then rethrown; DIRECT never retries")
+    public void retriesAndExhaustion() {
+        for (ConcurrencyPolicy.Mode mode : List.of(ConcurrencyPolicy.Mode.RETRY, ConcurrencyPolicy.Mode.STRIPED)) {
+            ConflictingRepository repository = new ConflictingRepository();
+            ProcessPaymentEventUseCase useCase = useCase(repository, policy(mode, 4, 3));
+
+            repository.failures.set(2);
+            useCase.execute(UUID.randomUUID(), "pay-1", PaymentStatus.AUTHORIZED);
+            assertEquals(3, repository.calls.get(), mode + ": two conflicts, then applied");
+            assertEquals(PaymentStatus.AUTHORIZED, repository.findById("pay-1").orElseThrow().getStatus());
+            assertEquals(2, useCase.conflicts());
+            assertEquals(2, useCase.retries());
+            assertEquals(0, useCase.retriesExhausted());
+
+            repository.failures.set(5);
+            assertThrows(OptimisticLockException.class,
+                    () -> useCase.execute(UUID.randomUUID(), "pay-1", PaymentStatus.APPROVED));
+            assertEquals(6, repository.calls.get(), mode + ": gave up after three attempts");
+            assertEquals(5, useCase.conflicts());
+            assertEquals(4, useCase.retries());
+            assertEquals(1, useCase.retriesExhausted());
+            assertEquals(PaymentStatus.AUTHORIZED, repository.findById("pay-1").orElseThrow().getStatus());
+        }
+
+        ConflictingRepository repository = new ConflictingRepository();
+        ProcessPaymentEventUseCase direct = useCase(repository, policy(ConcurrencyPolicy.Mode.DIRECT, 4, 3));
+        repository.failures.set(1);
+        assertThrows(OptimisticLockException.class,
+                () -> direct.execute(UUID.randomUUID(), "pay-1", PaymentStatus.AUTHORIZED));
+        assertEquals(1, repository.calls.get());
+        assertEquals(1, direct.conflicts());
+        assertEquals(0, direct.retries());
+        assertEquals(1, direct.retriesExhausted());
+    }
+
+    @Test
+    @DisplayName("Backoff between retries is capped by maxBackoff")
+    public void backoffIsCapped() {
+        ConflictingRepository repository = new ConflictingRepository();
+        ProcessPaymentEventUseCase useCase = useCase(repository, new ConcurrencyPolicy(
+                ConcurrencyPolicy.Mode.RETRY, 1, 5, Duration.ofHours(1), Duration.ofMillis(1)));
+
+        repository.failures.set(4);
+        long start = System.nanoTime();
+        useCase.execute(UUID.randomUUID(), "pay-1", PaymentStatus.AUTHORIZED);
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos(), "the hour-long base delay was not capped");
+        assertEquals(4, useCase.retries());
+    }
+
+    @Test
+    @DisplayName("STRIPED serializes events of the same payment and rounds the stripe count up to a power of two")
+    public void stripedSerializesSamePayment() throws Exception {
+        assertEquals(1, useCase(new ConflictingRepository(), policy(ConcurrencyPolicy.Mode.STRIPED, 1, 1)).stripeCount());
+        assertEquals(8, useCase(new ConflictingRepository(), policy(ConcurrencyPolicy.Mode.STRIPED, 5, 1)).stripeCount());
+        assertEquals(64, useCase(new ConflictingRepository(), policy(ConcurrencyPolicy.Mode.STRIPED, 64, 1)).stripeCount());
+        assertEquals(0, useCase(new ConflictingRepository(), policy(ConcurrencyPolicy.Mode.RETRY, 64, 1)).stripeCount());
+        assertThrows(IllegalArgumentException.class, () -> policy(ConcurrencyPolicy.Mode.STRIPED, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> policy(ConcurrencyPolicy.Mode.RETRY, 1, 0));
+
+        ConflictingRepository repository = new ConflictingRepository();
+        ProcessPaymentEventUseCase useCase = useCase(repository, policy(ConcurrencyPolicy.Mode.STRIPED, 16, 1));
+        int threads = 8;
+        int eventsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> pending = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                pending.add(executor.submit(() -> {
+                    for (int i = 0; i < eventsPerThread; i++) {
+                        useCase.execute(UUID.randomUUID(), "hot", PaymentStatus.AUTHORIZED);
+                    }
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, repository.maxActive.get(), "updates of one payment overlapped");
+        assertEquals(threads * eventsPerThread, repository.calls.get());
+        assertEquals(0, useCase.conflicts());
+    }
+}
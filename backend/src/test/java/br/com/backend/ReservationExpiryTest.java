@@ -0,0 +1,297 @@
+package br.com.backend;
+
+import br.com.backend.adapters.out.IdempotencyStoreInMemory;
+import br.com.backend.adapters.out.OrderRepositoryInMemory;
+import br.com.backend.adapters.out.PaymentRepositoryInMemory;
+import br.com.backend.adapters.out.StockRepositoryInMemory;
+import br.com.backend.application.usecases.ReservationPolicy;
+import br.com.backend.application.usecases.ReserveOrderStockUseCase;
+import br.com.backend.model.order.Order;
+import br.com.backend.model.order.OrderStatus;
+import br.com.backend.model.payment.EventRetention;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentStatus;
+import br.com.backend.model.stock.Stock;
+import br.com.backend.strategy.PaymentApprovedStrategy;
+import br.com.backend.support.EventSchemas;
+import br.com.libdomain.model.Event;
+import br.com.libdomain.ports.BulkSaveResult;
+import br.com.libdomain.ports.IdempotencyStore;
+import br.com.libintegration.timer.TimingWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationExpiryTest {
+
+    @Test
+    @DisplayName("Timing wheel expires each timeout on its tick across every level and never fires cancelled ones")
+    public void timingWheel() {
+        AtomicLong now = new AtomicLong();
+        AtomicLong fired = new AtomicLong();
+        AtomicLong late = new AtomicLong();
+        // 4 buckets per level: delays up to 4^4 ticks exercise every cascade, longer ones the overflow
+        TimingWheel<Long> wheel = new TimingWheel<>(Duration.ofNanos(1), 4, deadline -> {
+            fired.incrementAndGet();
+            if (deadline != now.get()) {
+                late.incrementAndGet();
+            }
+        }, now::get);
+
+        List<TimingWheel.Timeout<Long>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long delay = ThreadLocalRandom.current().nextLong(1, 600);
+            timeouts.add(wheel.schedule(now.get() + delay, Duration.ofNanos(delay)));
+            if (i % 10 == 0) {
+                now.incrementAndGet();
+                wheel.advance();
+            }
+        }
+        int cancelled = 0;
+        for (int i = 0; i < timeouts.size(); i += 3) {
+            if (timeouts.get(i).cancel()) {
+                cancelled++;
+            }
+        }
+        assertEquals(timeouts.size() - fired.get() - cancelled, wheel.pending());
+
+        while (wheel.pending() > 0) {
+            now.incrementAndGet();
+            wheel.advance();
+        }
+        assertEquals(timeouts.size() - cancelled, fired.get());
+        assertEquals(0, late.get(), "fired on the wrong tick");
+        for (TimingWheel.Timeout<Long> timeout : timeouts) {
+            assertTrue(timeout.isCancelled() ^ timeout.isExpired());
+            assertFalse(timeout.cancel());
+        }
+        wheel.close();
+
+        // a callback that throws an Error does not stop the following expiries
+        AtomicLong survived = new AtomicLong();
+        TimingWheel<Boolean> failing = new TimingWheel<>(Duration.ofNanos(1), 4, fail -> {
+            if (fail) {
+                throw new AssertionError("boom");
+            }
+            survived.incrementAndGet();
+        }, now::get);
+        failing.schedule(true, Duration.ofNanos(1));
+        failing.schedule(false, Duration.ofNanos(2));
+        now.addAndGet(2);
+        assertEquals(2, failing.advance());
+        assertEquals(1, survived.get());
+    }
+
+    @Test
+    @DisplayName("An expired reservation releases every line and cancels the order; settled and released ones do not expire")
+    public void reservationExpiry() throws InterruptedException {
+        StockRepositoryInMemory stockRepository = new StockRepositoryInMemory();
+        OrderRepositoryInMemory orderRepository = new OrderRepositoryInMemory();
+        stockRepository.save(new Stock("p1", 10));
+        stockRepository.save(Stock.sharded("p2", 10, 4));
+
+        List<String> transitions = new CopyOnWriteArrayList<>();
+        try (ReserveOrderStockUseCase useCase = new ReserveOrderStockUseCase(stockRepository, orderRepository,
+                new ReservationPolicy(Duration.ofMillis(50), Duration.ofMillis(5), 64),
+                List.of((from, to) -> transitions.add(from + "->" + to)))) {
+            Order unpaid = confirmed(orderRepository, "unpaid", 2, 3);
+            Order paid = confirmed(orderRepository, "paid", 1, 1);
+            Order cancelled = confirmed(orderRepository, "cancelled", 1, 1);
+            assertTrue(useCase.reserve(unpaid));
+            assertTrue(useCase.reserve(paid));
+            assertTrue(useCase.reserve(cancelled));
+            assertFalse(useCase.reserve(unpaid), "an order holds a single reservation");
+            assertEquals(6, stockRepository.findById("p1").orElseThrow().getQuantity());
+
+            // the approval of the order's payment settles its reservation
+            new PaymentApprovedStrategy(new PaymentRepositoryInMemory(), useCase, IdempotencyStore.none(),
+                    EventRetention.unbounded()).execute(
+                    Event.of("PAYMENT_APPROVED", EventSchemas.PAYMENT_APPROVED.payload()
+                            .set(EventSchemas.PAYMENT_APPROVED_PAYMENT_ID, "payment-paid")
+                            .set(EventSchemas.PAYMENT_APPROVED_ORDER_ID, "paid")
+                            .build()));
+            assertFalse(useCase.settle("paid"), "a settled reservation is forgotten");
+            assertFalse(useCase.release(paid), "a settled reservation is final");
+            assertTrue(useCase.release(cancelled));
+            assertEquals(1, useCase.pendingExpiries());
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (useCase.expiredCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, useCase.expiredCount());
+            assertEquals(OrderStatus.CANCELLED, orderRepository.findById("unpaid").orElseThrow().getStatus());
+            assertEquals(List.of("CONFIRMED->CANCELLED"), transitions);
+            assertEquals(OrderStatus.CONFIRMED, orderRepository.findById("paid").orElseThrow().getStatus());
+            assertEquals(9, stockRepository.findById("p1").orElseThrow().getQuantity());
+            assertEquals(9, stockRepository.findById("p2").orElseThrow().getQuantity());
+            assertFalse(useCase.release(unpaid), "already released by expiry");
+            assertEquals(9, stockRepository.findById("p1").orElseThrow().getQuantity());
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent reservations of one order debit its stock once and leave a single expiry to settle")
+    public void concurrentReservationsOfOneOrder() throws Exception {
+        StockRepositoryInMemory stockRepository = new StockRepositoryInMemory();
+        OrderRepositoryInMemory orderRepository = new OrderRepositoryInMemory();
+        stockRepository.save(new Stock("p1", 1_000));
+        stockRepository.save(Stock.sharded("p2", 1_000, 4));
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (ReserveOrderStockUseCase useCase = new ReserveOrderStockUseCase(stockRepository, orderRepository,
+                new ReservationPolicy(Duration.ofMinutes(1), Duration.ofMillis(5), 64), List.of())) {
+            for (int round = 0; round < 50; round++) {
+                Order order = confirmed(orderRepository, "order-" + round, 1, 2);
+                CyclicBarrier start = new CyclicBarrier(threads);
+                List<Future<Boolean>> attempts = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    attempts.add(executor.submit(() -> {
+                        start.await();
+                        return useCase.reserve(order);
+                    }));
+                }
+                int won = 0;
+                for (Future<Boolean> attempt : attempts) {
+                    if (attempt.get()) {
+                        won++;
+                    }
+                }
+                assertEquals(1, won, "round " + round);
+                assertEquals(1, useCase.pendingExpiries());
+                assertTrue(useCase.settle(order.getOrderId()));
+                assertEquals(0, useCase.pendingExpiries(), "no orphaned expiry left behind");
+            }
+            assertEquals(950, stockRepository.findById("p1").orElseThrow().getQuantity());
+            assertEquals(900, stockRepository.findById("p2").orElseThrow().getQuantity());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Without expiry, reservations are still tracked: release applies once and only to reserved orders")
+    public void releaseWithoutExpiry() {
+        StockRepositoryInMemory stockRepository = new StockRepositoryInMemory();
+        OrderRepositoryInMemory orderRepository = new OrderRepositoryInMemory();
+        stockRepository.save(new Stock("p1", 10));
+        stockRepository.save(new Stock("p2", 10));
+
+        try (ReserveOrderStockUseCase useCase = new ReserveOrderStockUseCase(stockRepository, orderRepository,
+                ReservationPolicy.NO_EXPIRY, List.of())) {
+            Order order = confirmed(orderRepository, "order", 2, 3);
+            Order neverReserved = confirmed(orderRepository, "never-reserved", 1, 1);
+            Order settled = confirmed(orderRepository, "settled", 1, 1);
+
+            assertFalse(useCase.release(neverReserved));
+            assertTrue(useCase.reserve(order));
+            assertFalse(useCase.reserve(order), "an order holds a single reservation");
+            assertTrue(useCase.release(order));
+            assertFalse(useCase.release(order), "already released");
+            assertEquals(10, stockRepository.findById("p1").orElseThrow().getQuantity());
+            assertEquals(10, stockRepository.findById("p2").orElseThrow().getQuantity());
+
+            assertTrue(useCase.reserve(settled));
+            assertTrue(useCase.settle("settled"));
+            assertFalse(useCase.release(settled), "a settled reservation is final");
+            assertEquals(9, stockRepository.findById("p1").orElseThrow().getQuantity());
+            assertEquals(0, useCase.pendingExpiries());
+        }
+    }
+
+    @Test
+    @DisplayName("An approval batch settles the orders of stored payments when another payment fails, and skips duplicates like execute")
+    public void approvalBatchSettlesStoredPayments() {
+        StockRepositoryInMemory stockRepository = new StockRepositoryInMemory();
+        OrderRepositoryInMemory orderRepository = new OrderRepositoryInMemory();
+        stockRepository.save(new Stock("p1", 10));
+        stockRepository.save(new Stock("p2", 10));
+        // payment-broken never gets stored, neither in bulk nor one by one
+        PaymentRepositoryInMemory payments = new PaymentRepositoryInMemory() {
+            @Override
+            public BulkSaveResult<Payment> saveAll(Collection<Payment> entities) {
+                List<Payment> others = entities.stream().filter(p -> !p.getPaymentId().equals("payment-broken")).toList();
+                BulkSaveResult<Payment> result = super.saveAll(others);
+                List<BulkSaveResult.Failure<Payment>> failures = new ArrayList<>(result.failures());
+                entities.stream().filter(p -> p.getPaymentId().equals("payment-broken")).forEach(p ->
+                        failures.add(new BulkSaveResult.Failure<>(p, new IllegalStateException("disk full"))));
+                return new BulkSaveResult<>(result.saved(), failures);
+            }
+
+            @Override
+            public boolean update(String paymentId, Function<String, Payment> factory, Predicate<Payment> mutator) {
+                if (paymentId.equals("payment-broken")) {
+                    throw new IllegalStateException("disk full");
+                }
+                return super.update(paymentId, factory, mutator);
+            }
+        };
+        IdempotencyStoreInMemory store = new IdempotencyStoreInMemory(Duration.ofMinutes(1), 1_000, 0.01);
+
+        try (ReserveOrderStockUseCase useCase = new ReserveOrderStockUseCase(stockRepository, orderRepository,
+                ReservationPolicy.NO_EXPIRY, List.of())) {
+            Order paid = confirmed(orderRepository, "paid", 1, 1);
+            Order broken = confirmed(orderRepository, "broken", 1, 1);
+            assertTrue(useCase.reserve(paid));
+            assertTrue(useCase.reserve(broken));
+
+            PaymentApprovedStrategy strategy = new PaymentApprovedStrategy(payments, useCase, store, EventRetention.unbounded());
+            Event paidApproval = approval("payment-paid", "paid");
+            Event brokenApproval = approval("payment-broken", "broken");
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> strategy.executeBatch(List.of(paidApproval, brokenApproval)));
+            assertEquals("disk full", e.getMessage());
+
+            assertEquals(PaymentStatus.AUTHORIZED, payments.findById("payment-paid").orElseThrow().getStatus());
+            assertTrue(store.isProcessed(paidApproval.eventId()));
+            assertFalse(store.isProcessed(brokenApproval.eventId()));
+            assertFalse(useCase.release(paid), "the stored payment's order was settled");
+            assertTrue(useCase.release(broken), "the failed payment's order is still reserved");
+
+            // a duplicate is skipped by the idempotency store on both paths and still settles
+            assertTrue(useCase.reserve(broken));
+            strategy.executeBatch(List.of(approval(paidApproval.eventId(), "payment-paid", "broken")));
+            assertFalse(useCase.release(broken));
+            strategy.execute(paidApproval);
+            assertEquals(1, payments.findById("payment-paid").orElseThrow().getVersion());
+            assertEquals(3, store.duplicates(), "one check above, then the batch and the single duplicate");
+        }
+    }
+
+    private static Event approval(String paymentId, String orderId) {
+        return approval(UUID.randomUUID(), paymentId, orderId);
+    }
+
+    private static Event approval(UUID eventId, String paymentId, String orderId) {
+        return Event.of(eventId, "PAYMENT_APPROVED", EventSchemas.PAYMENT_APPROVED.payload()
+                .set(EventSchemas.PAYMENT_APPROVED_PAYMENT_ID, paymentId)
+                .set(EventSchemas.PAYMENT_APPROVED_ORDER_ID, orderId)
+                .build());
+    }
+
+    private static Order confirmed(OrderRepositoryInMemory orderRepository, String orderId, int p1, int p2) {
+        Order order = new Order(orderId);
+        order.addItem("p1", p1);
+        order.addItem("p2", p2);
+        order.applyStatus(OrderStatus.CONFIRMED);
+        orderRepository.save(order);
+        return order;
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.backend;
+
+import br.com.backend.model.stock.Stock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockModelTest {
+
+    private static final int THREADS = 32;
+    private static final int INITIAL = 50_000;
+
+    @Test
+    @DisplayName("Concurrent reservations never oversell, with one counter or many, and drain the stock exactly")
+    public void noOversell() throws InterruptedException {
+        for (Stock stock : List.of(new Stock("sku", INITIAL), Stock.sharded("sku", INITIAL, 8))) {
+            AtomicInteger reserved = new AtomicInteger();
+            run(() -> {
+                // mixed sizes until even a single unit is refused
+                while (true) {
+                    int qty = ThreadLocalRandom.current().nextInt(1, 4);
+                    if (stock.reserve(qty)) {
+                        reserved.addAndGet(qty);
+                    } else if (!stock.reserve(1)) {
+                        return;
+                    } else {
+                        reserved.incrementAndGet();
+                    }
+                }
+            });
+            assertEquals(INITIAL, reserved.get(), "shards=" + stock.getShards());
+            assertEquals(0, stock.getQuantity());
+            assertFalse(stock.reserve(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Reservations and releases racing on a sharded stock keep the total consistent")
+    public void reserveAndRelease() throws InterruptedException {
+        Stock stock = Stock.sharded("sku", 100, 8);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger maxHeld = new AtomicInteger();
+        run(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                int qty = ThreadLocalRandom.current().nextInt(1, 6);
+                if (stock.reserve(qty)) {
+                    maxHeld.accumulateAndGet(held.addAndGet(qty), Math::max);
+                    held.addAndGet(-qty);
+                    stock.release(qty);
+                }
+            }
+        });
+        assertTrue(maxHeld.get() <= 100, "oversold: " + maxHeld.get());
+        assertEquals(100, stock.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Multi-line reservations racing over shared products are all-or-nothing and never deadlock")
+    public void reserveAll() throws InterruptedException {
+        Stock a = Stock.sharded("a", 3_000, 4);
+        Stock b = new Stock("b", 2_000);
+        Stock c = new Stock("c", 10_000);
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        AtomicInteger singles = new AtomicInteger();
+        run(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                // overlapping orders listing their lines in different orders
+                if (Stock.reserveAll(Map.of(a, 2, b, 1))) {
+                    first.incrementAndGet();
+                }
+                if (Stock.reserveAll(Map.of(c, 3, b, 1, a, 1))) {
+                    second.incrementAndGet();
+                }
+                if (a.reserve(1)) {
+                    singles.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(3_000, a.getQuantity() + 2 * first.get() + second.get() + singles.get());
+        assertEquals(2_000, b.getQuantity() + first.get() + second.get());
+        assertEquals(10_000, c.getQuantity() + 3 * second.get());
+        assertTrue(a.getQuantity() >= 0 && b.getQuantity() >= 0);
+
+        int before = c.getQuantity();
+        assertFalse(Stock.reserveAll(Map.of(c, 1, b, b.getQuantity() + 1)));
+        assertFalse(Stock.reserveAll(Map.of(c, 1, b, 0)));
+        assertEquals(before, c.getQuantity(), "a failed order must leave every line untouched");
+    }
+
+    private static void run(Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.backend.adapters.out;
+
+import br.com.backend.application.usecases.ConcurrencyPolicy;
+import br.com.backend.application.usecases.ProcessPaymentEventUseCase;
+import br.com.backend.model.payment.EventRetention;
+import br.com.backend.model.payment.PaymentStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Same package as the store: the Bloom filter and the clock-injecting constructor are package-private.
+ */
+public class IdempotencyStoreTest {
+
+    @Test
+    @DisplayName("Bloom filter never forgets an added key and keeps false positives near the target rate")
+    public void bloomFilter() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            added.add(id);
+            filter.put(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+        for (UUID id : added) {
+            assertTrue(filter.mightContain(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            if (filter.mightContain(id.getMostSignificantBits(), id.getLeastSignificantBits())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+
+    @Test
+    @DisplayName("A processed ID is remembered for the whole TTL across generation rotations, then forgotten")
+    public void coverageAndRotation() {
+        AtomicLong now = new AtomicLong();
+        IdempotencyStoreInMemory store = new IdempotencyStoreInMemory(Duration.ofMillis(100), 1_000, 0.01, now::get);
+
+        // recorded late in the first generation: still covered after the rotation at t=100
+        UUID late = UUID.randomUUID();
+        now.set(90);
+        store.markProcessed(late);
+        now.set(150);
+        assertTrue(store.isProcessed(late));
+        now.set(189);
+        assertTrue(store.isProcessed(late));
+        now.set(190);
+        assertFalse(store.isProcessed(late), "expired after ttl");
+
+        // recorded right after a rotation: covered until its own ttl elapses
+        UUID early = UUID.randomUUID();
+        now.set(200);
+        store.markProcessed(early);
+        now.set(299);
+        assertTrue(store.isProcessed(early));
+        assertEquals(3, store.duplicates());
+
+        // two silent periods retire both generations: the filter alone answers
+        long filtered = store.filtered();
+        now.set(600);
+        assertFalse(store.isProcessed(early));
+        assertFalse(store.isProcessed(late));
+        assertEquals(filtered + 2, store.filtered());
+    }
+
+    @Test
+    @DisplayName("Expired entries leave the exact store in insertion order; a Bloom maybe without an entry is not a duplicate")
+    public void evictionAndBloomMaybe() {
+        AtomicLong now = new AtomicLong();
+        IdempotencyStoreInMemory store = new IdempotencyStoreInMemory(Duration.ofMillis(100), 1_000, 0.01, now::get);
+
+        List<UUID> old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = UUID.randomUUID();
+            old.add(id);
+            store.markProcessed(id);
+        }
+        UUID remarked = old.get(0);
+        now.set(50);
+        store.markProcessed(remarked);
+        assertEquals(5, store.size());
+
+        now.set(100);
+        store.markProcessed(UUID.randomUUID());
+        // the five entries from t=0 are gone, the one re-recorded at t=50 keeps its newer entry
+        assertEquals(2, store.size());
+        assertTrue(store.isProcessed(remarked));
+
+        // evicted from the exact store but still in the previous Bloom generation
+        long filtered = store.filtered();
+        long duplicates = store.duplicates();
+        assertFalse(store.isProcessed(old.get(1)));
+        assertEquals(filtered, store.filtered(), "answered by the exact store, not the filter");
+        assertEquals(duplicates, store.duplicates());
+    }
+
+    @Test
+    @DisplayName("Only applied events are marked processed: a rejected transition still applies on redelivery")
+    public void markedOnlyAfterApply() {
+        IdempotencyStoreInMemory store = new IdempotencyStoreInMemory(Duration.ofMinutes(1), 1_000, 0.01);
+        PaymentRepositoryInMemory repository = new PaymentRepositoryInMemory();
+        ProcessPaymentEventUseCase useCase =
+                new ProcessPaymentEventUseCase(repository, store, ConcurrencyPolicy.DEFAULT,
+                        EventRetention.lastEvents(16), List.of());
+
+        UUID refund = UUID.randomUUID();
+        useCase.execute(refund, "pay-1", PaymentStatus.REFUNDED);
+        assertTrue(repository.findById("pay-1").isEmpty(), "nothing stored for a rejected transition");
+        assertFalse(store.isProcessed(refund), "a rejected transition is not remembered");
+
+        UUID approve = UUID.randomUUID();
+        useCase.execute(approve, "pay-1", PaymentStatus.APPROVED);
+        assertTrue(store.isProcessed(approve));
+        useCase.execute(approve, "pay-1", PaymentStatus.APPROVED);
+        assertEquals(1, useCase.duplicates());
+
+        useCase.execute(refund, "pay-1", PaymentStatus.REFUNDED);
+        assertEquals(PaymentStatus.REFUNDED, repository.findById("pay-1").orElseThrow().getStatus());
+        assertTrue(store.isProcessed(refund));
+    }
+}
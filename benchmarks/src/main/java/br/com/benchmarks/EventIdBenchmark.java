@@ -0,0 +1,36 @@
+package br.com.benchmarks;
+
+import br.com.libdomain.model.EventIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event ID generation from many threads: random v4 (shared SecureRandom) vs time-ordered v7.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class EventIdBenchmark {
+
+    private final EventIdGenerator random = EventIdGenerator.random();
+    private final EventIdGenerator timeOrdered = EventIdGenerator.timeOrdered();
+
+    @Benchmark
+    public UUID randomUuid() {
+        return random.nextId();
+    }
+
+    @Benchmark
+    public UUID timeOrderedUuid() {
+        return timeOrdered.nextId();
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.benchmarks;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.router.AggregateKeyExtractor;
+import br.com.libdomain.router.EventRouter;
+import br.com.libdomain.router.IndexedStrategySelector;
+import br.com.libdomain.router.PartitionedEventRouter;
+import br.com.libdomain.router.RingBufferEventRouter;
+import br.com.libdomain.router.StrategySelector;
+import br.com.libdomain.router.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routing cost of a single event and of a batch for each router engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventRouterBenchmark {
+
+    @Param({"SEQUENTIAL", "PARTITIONED", "RING_BUFFER"})
+    public String engine;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private EventRouter router;
+    private Event event;
+    private List<Event> batch;
+
+    @Setup
+    public void setup() {
+        StrategySelector selector = new IndexedStrategySelector(List.of(
+                new NoOpStrategy("PAYMENT_APPROVED"),
+                new NoOpStrategy("ORDER_CREATED")));
+
+        router = switch (engine) {
+            case "PARTITIONED" -> new PartitionedEventRouter(selector,
+                    AggregateKeyExtractor.payloadFields(List.of("paymentId", "orderId")),
+                    Runtime.getRuntime().availableProcessors());
+            case "RING_BUFFER" -> RingBufferEventRouter.start(selector, RingBufferEventRouter.DEFAULT_SIZE, WaitStrategy.YIELD);
+            default -> new EventRouter(selector);
+        };
+
+        event = Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-1"));
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(i % 2 == 0
+                    ? Event.of("PAYMENT_APPROVED", Map.of("paymentId", "p-" + i))
+                    : Event.of("ORDER_CREATED", Map.of("orderId", "o-" + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (router instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public void routeSingle() {
+        router.route(event);
+    }
+
+    @Benchmark
+    public void routeBatch() {
+        router.route(batch);
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.benchmarks;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.Set;
+
+/**
+ * Strategy with a static type and no work, so benchmarks measure routing overhead only.
+ */
+class NoOpStrategy implements EventStrategy {
+
+    private final String type;
+    private final Set<String> types;
+    volatile Event last;
+
+    NoOpStrategy(String type) {
+        this.type = type;
+        this.types = Set.of(type);
+    }
+
+    @Override
+    public void execute(Event event) {
+        last = event;
+    }
+
+    @Override
+    public boolean supports(Event event) {
+        return type.equals(event.type());
+    }
+
+    @Override
+    public Set<String> supportedTypes() {
+        return types;
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.benchmarks;
+
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Payment#applyEvent} and {@link Payment#copy()} as the processed event history grows.
+ * {@code applyNewEvent} keeps adding to the history during the run, so it slightly
+ * overstates {@code history}; the duplicate path and copy measure a fixed size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentBenchmark {
+
+    @Param({"0", "100", "10000"})
+    public int history;
+
+    private Payment payment;
+    private UUID processedEventId;
+
+    @Setup
+    public void setup() {
+        payment = new Payment("payment-1", PaymentStatus.CREATED);
+        payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED);
+        for (int i = 0; i < history; i++) {
+            payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED);
+        }
+        processedEventId = UUID.randomUUID();
+        payment.applyEvent(processedEventId, PaymentStatus.AUTHORIZED);
+    }
+
+    @Benchmark
+    public boolean applyDuplicateEvent() {
+        return payment.applyEvent(processedEventId, PaymentStatus.AUTHORIZED);
+    }
+
+    @Benchmark
+    public boolean applyNewEvent() {
+        return payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED);
+    }
+
+    @Benchmark
+    public Payment copy() {
+        return payment.copy();
+    }
+}
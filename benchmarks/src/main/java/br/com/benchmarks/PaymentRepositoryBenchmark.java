@@ -0,0 +1,106 @@
+package br.com.benchmarks;
+
+import br.com.backend.adapters.out.PaymentRepository;
+import br.com.backend.adapters.out.PaymentRepositoryInMemory;
+import br.com.backend.adapters.out.PaymentRepositoryOffHeap;
+import br.com.backend.model.payment.Payment;
+import br.com.backend.model.payment.PaymentStatus;
+import jakarta.persistence.OptimisticLockException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PaymentRepositoryInMemory} and {@link PaymentRepositoryOffHeap} read and
+ * read-modify-write under contention.
+ * With {@code keys=1} every thread races on the same payment; conflicts are reported
+ * as an auxiliary counter. {@code update} is the in-place alternative to
+ * {@code findApplySave} and never conflicts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class PaymentRepositoryBenchmark {
+
+    @Param({"1", "1024"})
+    public int keys;
+
+    @Param({"in-memory", "off-heap"})
+    public String store;
+
+    private PaymentRepository repository;
+    private String[] ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long saved;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            saved = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        repository = store.equals("off-heap")
+                ? new PaymentRepositoryOffHeap(PaymentRepositoryOffHeap.DEFAULT_CAPACITY,
+                        PaymentRepositoryOffHeap.DEFAULT_DEDUP_WINDOW, PaymentRepositoryOffHeap.DEFAULT_MAX_ID_BYTES)
+                : new PaymentRepositoryInMemory();
+        ids = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            ids[i] = "payment-" + i;
+            Payment payment = new Payment(ids[i], PaymentStatus.CREATED);
+            payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED);
+            repository.save(payment);
+        }
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(keys)];
+    }
+
+    @Benchmark
+    public Optional<Payment> findById() {
+        return repository.findById(randomId());
+    }
+
+    @Benchmark
+    public void findApplySave(Outcome outcome) {
+        Payment payment = repository.findById(randomId()).orElseThrow();
+        payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED);
+        try {
+            repository.save(payment);
+            outcome.saved++;
+        } catch (OptimisticLockException e) {
+            outcome.conflicts++;
+        }
+    }
+
+    @Benchmark
+    public void update(Outcome outcome) {
+        // always writes, like findApplySave, so both paths persist on every call
+        repository.update(randomId(), id -> new Payment(id, PaymentStatus.CREATED), payment -> {
+            payment.applyEvent(UUID.randomUUID(), PaymentStatus.AUTHORIZED);
+            return true;
+        });
+        outcome.saved++;
+    }
+}
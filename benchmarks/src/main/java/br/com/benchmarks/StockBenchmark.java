@@ -0,0 +1,46 @@
+package br.com.benchmarks;
+
+import br.com.backend.model.stock.Stock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One hot SKU reserved and released by many threads at once, with a single CAS counter
+ * ({@code shards=1}) or split into sub-counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class StockBenchmark {
+
+    @Param({"1", "8"})
+    public int shards;
+
+    private Stock stock;
+
+    @Setup
+    public void setup() {
+        stock = shards == 1
+                ? new Stock("hot-sku", 1_000_000)
+                : Stock.sharded("hot-sku", 1_000_000, shards);
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        boolean reserved = stock.reserve(1);
+        if (reserved) {
+            stock.release(1);
+        }
+        return reserved;
+    }
+}
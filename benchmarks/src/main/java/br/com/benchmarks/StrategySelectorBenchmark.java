@@ -0,0 +1,57 @@
+package br.com.benchmarks;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.router.DefaultStrategySelector;
+import br.com.libdomain.router.IndexedStrategySelector;
+import br.com.libdomain.router.StrategySelector;
+import br.com.libdomain.strategy.EventStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of selecting the strategies of one event as the number of registered strategies grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StrategySelectorBenchmark {
+
+    @Param({"2", "16", "64", "256"})
+    public int strategyCount;
+
+    private StrategySelector defaultSelector;
+    private StrategySelector indexedSelector;
+    private Event event;
+
+    @Setup
+    public void setup() {
+        List<EventStrategy> strategies = new ArrayList<>();
+        for (int i = 0; i < strategyCount; i++) {
+            strategies.add(new NoOpStrategy("TYPE_" + i));
+        }
+        defaultSelector = new DefaultStrategySelector(strategies);
+        indexedSelector = new IndexedStrategySelector(strategies);
+        event = Event.of("TYPE_" + (strategyCount - 1), Map.of("paymentId", "p-1"));
+    }
+
+    @Benchmark
+    public List<EventStrategy> defaultSelectAll() {
+        return defaultSelector.selectAll(event);
+    }
+
+    @Benchmark
+    public List<EventStrategy> indexedSelectAll() {
+        return indexedSelector.selectAll(event);
+    }
+}
@@ -0,0 +1,187 @@
+package br.com.libdomain.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Payload compacto guiado por {@link PayloadSchema}.
+ * Valores de referência ficam em um {@code Object[]} e primitivos em um {@code long[]}, indexados
+ * pela posição do campo; os nomes são do esquema (compartilhados), não de cada evento.
+ * Implementa {@code Map<String, Object>} somente leitura para compatibilidade com {@link Event#payload()}:
+ * o acesso por nome faz boxing dos primitivos; o acesso por {@link PayloadSchema.Field} não.
+ * Esquemas sem campos de um dos tipos compartilham um array vazio em vez de alocar um por evento.
+ */
+public final class CompactPayload extends AbstractMap<String, Object> {
+
+    private static final Object[] NO_OBJECTS = new Object[0];
+    private static final long[] NO_PRIMITIVES = new long[0];
+
+    private final PayloadSchema schema;
+    private final Object[] objects;
+    private final long[] primitives;
+    private final long present;
+
+    private CompactPayload(PayloadSchema schema, Object[] objects, long[] primitives, long present) {
+        this.schema = schema;
+        this.objects = objects;
+        this.primitives = primitives;
+        this.present = present;
+    }
+
+    public PayloadSchema schema() {
+        return schema;
+    }
+
+    public boolean has(PayloadSchema.Field field) {
+        return (present & (1L << field.position())) != 0;
+    }
+
+    public Object get(PayloadSchema.Field field) {
+        if (!has(field)) {
+            return null;
+        }
+        long bits = field.kind().primitive() ? primitives[field.slot()] : 0;
+        return switch (field.kind()) {
+            case OBJECT -> objects[field.slot()];
+            case LONG -> bits;
+            case INT -> (int) bits;
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            case BOOLEAN -> bits != 0;
+        };
+    }
+
+    public long getLong(PayloadSchema.Field field) {
+        return primitives[field.slot()];
+    }
+
+    public int getInt(PayloadSchema.Field field) {
+        return (int) primitives[field.slot()];
+    }
+
+    public double getDouble(PayloadSchema.Field field) {
+        return Double.longBitsToDouble(primitives[field.slot()]);
+    }
+
+    public boolean getBoolean(PayloadSchema.Field field) {
+        return primitives[field.slot()] != 0;
+    }
+
+    /* ========= Map view ========= */
+
+    @Override
+    public Object get(Object key) {
+        PayloadSchema.Field field = schema.fieldOrNull(key);
+        return field == null ? null : get(field);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        PayloadSchema.Field field = schema.fieldOrNull(key);
+        return field != null && has(field);
+    }
+
+    @Override
+    public int size() {
+        return Long.bitCount(present);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private long remaining = present;
+
+                    @Override
+                    public boolean hasNext() {
+                        return remaining != 0;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (remaining == 0) {
+                            throw new NoSuchElementException();
+                        }
+                        int position = Long.numberOfTrailingZeros(remaining);
+                        remaining &= remaining - 1;
+                        PayloadSchema.Field field = schema.fieldAt(position);
+                        return new SimpleImmutableEntry<>(field.name(), CompactPayload.this.get(field));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactPayload.this.size();
+            }
+        };
+    }
+
+    public static final class Builder {
+        private final PayloadSchema schema;
+        private final Object[] objects;
+        private final long[] primitives;
+        private long present;
+
+        Builder(PayloadSchema schema) {
+            this.schema = schema;
+            this.objects = schema.objectSlots() == 0 ? NO_OBJECTS : new Object[schema.objectSlots()];
+            this.primitives = schema.primitiveSlots() == 0 ? NO_PRIMITIVES : new long[schema.primitiveSlots()];
+        }
+
+        /**
+         * Define um campo pelo nome, convertendo o valor para o tipo do esquema.
+         */
+        public Builder set(String name, Object value) {
+            return set(schema.field(name), value);
+        }
+
+        public Builder set(PayloadSchema.Field field, Object value) {
+            if (value == null) {
+                if (!field.kind().primitive()) {
+                    objects[field.slot()] = null;
+                }
+                present &= ~(1L << field.position());
+                return this;
+            }
+            switch (field.kind()) {
+                case OBJECT -> objects[field.slot()] = value;
+                case LONG, INT -> primitives[field.slot()] = ((Number) value).longValue();
+                case DOUBLE -> primitives[field.slot()] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                case BOOLEAN -> primitives[field.slot()] = ((Boolean) value) ? 1 : 0;
+            }
+            present |= 1L << field.position();
+            return this;
+        }
+
+        public Builder setLong(String name, long value) {
+            PayloadSchema.Field field = schema.field(name);
+            if (field.kind() != PayloadSchema.Kind.LONG && field.kind() != PayloadSchema.Kind.INT) {
+                throw new IllegalArgumentException("Field " + field + " is not numeric");
+            }
+            primitives[field.slot()] = value;
+            present |= 1L << field.position();
+            return this;
+        }
+
+        /**
+         * Copia todos os campos de um mapa; chaves fora do esquema são rejeitadas.
+         */
+        public Builder putAll(Map<String, ?> values) {
+            values.forEach(this::set);
+            return this;
+        }
+
+        public CompactPayload build() {
+            return new CompactPayload(schema,
+                    objects.length == 0 ? NO_OBJECTS : objects.clone(),
+                    primitives.length == 0 ? NO_PRIMITIVES : primitives.clone(),
+                    present);
+        }
+    }
+}
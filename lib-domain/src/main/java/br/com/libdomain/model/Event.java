@@ -15,14 +15,27 @@ public record Event(
 ) {
 
     /**
-     * Cria um evento genérico com um novo UUID.
+     * Cria um evento genérico com um novo UUID ordenado por tempo
+     * ({@link EventIdGenerator#timeOrdered()}, UUID v7).
      *
      * @param type    tipo do evento (ex: PAYMENT_APPROVED)
      * @param payload dados do evento
      * @return novo Event
      */
     public static Event of(String type, Map<String, Object> payload) {
-        return new Event(UUID.randomUUID(), type, payload);
+        return of(EventIdGenerator.timeOrdered(), type, payload);
+    }
+
+    /**
+     * Cria um evento genérico com um novo UUID obtido do gerador recebido.
+     *
+     * @param generator gerador de IDs do chamador (ex: {@link EventIdGenerator#random()})
+     * @param type      tipo do evento
+     * @param payload   dados do evento
+     * @return novo Event
+     */
+    public static Event of(EventIdGenerator generator, String type, Map<String, Object> payload) {
+        return new Event(generator.nextId(), type, payload);
     }
 
     /**
@@ -36,4 +49,13 @@ public record Event(
     public static Event of(UUID eventId, String type, Map<String, Object> payload) {
         return new Event(eventId, type, payload);
     }
+
+    /**
+     * Instante de criação do evento, quando o ID é ordenado por tempo (UUID v7).
+     *
+     * @return milissegundos desde a época Unix, ou -1 se o ID for nulo ou não carregar timestamp
+     */
+    public long createdAtMillis() {
+        return eventId != null && eventId.version() == 7 ? TimeOrderedEventIdGenerator.timestampOf(eventId) : -1;
+    }
 }
@@ -0,0 +1,28 @@
+package br.com.libdomain.model;
+
+import java.util.UUID;
+
+/**
+ * Gera identificadores de eventos.
+ * {@link Event#of(String, java.util.Map)} usa {@link #timeOrdered()}; quem precisar de outro
+ * gerador o passa para {@link Event#of(EventIdGenerator, String, java.util.Map)}.
+ */
+@FunctionalInterface
+public interface EventIdGenerator {
+
+    UUID nextId();
+
+    /**
+     * UUIDs v4 aleatórios via {@link UUID#randomUUID()} (SecureRandom compartilhado).
+     */
+    static EventIdGenerator random() {
+        return UUID::randomUUID;
+    }
+
+    /**
+     * UUIDs v7 ordenados por tempo, sem locks e monotônicos por thread.
+     */
+    static EventIdGenerator timeOrdered() {
+        return TimeOrderedEventIdGenerator.INSTANCE;
+    }
+}
@@ -0,0 +1,254 @@
+package br.com.libdomain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Esquema do payload de um tipo de evento.
+ * Define os campos (nomes internados) e o tipo de cada um, permitindo que {@link CompactPayload}
+ * guarde os valores em arrays por posição em vez de um {@code HashMap} por evento.
+ * Um esquema é criado uma vez por tipo e compartilhado por todos os eventos desse tipo.
+ *
+ * Uso típico:
+ * <pre>
+ * PayloadSchema schema = PayloadSchema.define("PAYMENT_APPROVED")
+ *         .objectField("paymentId")
+ *         .longField("amount")
+ *         .register();
+ * PayloadSchema.Field paymentId = schema.field("paymentId");
+ * String id = paymentId.getString(event.payload());
+ * </pre>
+ */
+public final class PayloadSchema {
+
+    public static final int MAX_FIELDS = 64;
+
+    private static final Map<String, PayloadSchema> REGISTRY = new ConcurrentHashMap<>();
+
+    /**
+     * Tipo de armazenamento de um campo. Primitivos ficam em um {@code long[]} sem boxing.
+     */
+    public enum Kind {
+        OBJECT, LONG, INT, DOUBLE, BOOLEAN;
+
+        boolean primitive() {
+            return this != OBJECT;
+        }
+    }
+
+    /**
+     * Campo de um esquema. Guarde-o em uma constante e use-o para ler payloads sem busca por nome.
+     */
+    public static final class Field {
+        private final PayloadSchema schema;
+        private final String name;
+        private final Kind kind;
+        private final int position;
+        private final int slot;
+
+        private Field(PayloadSchema schema, String name, Kind kind, int position, int slot) {
+            this.schema = schema;
+            this.name = name;
+            this.kind = kind;
+            this.position = position;
+            this.slot = slot;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        int position() {
+            return position;
+        }
+
+        int slot() {
+            return slot;
+        }
+
+        /**
+         * Lê o campo de qualquer payload: acesso direto por posição quando o payload é um
+         * {@link CompactPayload} deste esquema, busca por nome caso contrário.
+         */
+        public Object get(Map<String, Object> payload) {
+            if (payload instanceof CompactPayload compact && compact.schema() == schema) {
+                return compact.get(this);
+            }
+            return payload == null ? null : payload.get(name);
+        }
+
+        public String getString(Map<String, Object> payload) {
+            Object value = get(payload);
+            return value == null ? null : value.toString();
+        }
+
+        public long getLong(Map<String, Object> payload) {
+            if (payload instanceof CompactPayload compact && compact.schema() == schema && kind == Kind.LONG) {
+                return compact.getLong(this);
+            }
+            return ((Number) get(payload)).longValue();
+        }
+
+        @Override
+        public String toString() {
+            return schema.type + "." + name + ":" + kind;
+        }
+    }
+
+    private final String type;
+    private final Field[] fields;
+    private final Map<String, Field> byName;
+    private final int objectSlots;
+    private final int primitiveSlots;
+
+    private PayloadSchema(String type, List<String> names, List<Kind> kinds) {
+        this.type = type.intern();
+        this.fields = new Field[names.size()];
+        Map<String, Field> index = new HashMap<>();
+        int objects = 0;
+        int primitives = 0;
+        for (int i = 0; i < fields.length; i++) {
+            Kind kind = kinds.get(i);
+            int slot = kind.primitive() ? primitives++ : objects++;
+            fields[i] = new Field(this, names.get(i).intern(), kind, i, slot);
+            index.put(fields[i].name, fields[i]);
+        }
+        this.byName = Map.copyOf(index);
+        this.objectSlots = objects;
+        this.primitiveSlots = primitives;
+    }
+
+    public static Builder define(String type) {
+        return new Builder(type);
+    }
+
+    /**
+     * @param type tipo do evento
+     * @return esquema registrado para o tipo, ou {@code null}
+     */
+    public static PayloadSchema forType(String type) {
+        return REGISTRY.get(type);
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * @param name nome do campo
+     * @return campo
+     * @throws IllegalArgumentException se o campo não existir no esquema
+     */
+    public Field field(String name) {
+        Field field = byName.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field " + name + " for event type " + type);
+        }
+        return field;
+    }
+
+    Field fieldOrNull(Object name) {
+        return byName.get(name);
+    }
+
+    Field fieldAt(int position) {
+        return fields[position];
+    }
+
+    private boolean hasFields(List<String> names, List<Kind> kinds) {
+        if (names.size() != fields.length) {
+            return false;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].name.equals(names.get(i)) || fields[i].kind != kinds.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int objectSlots() {
+        return objectSlots;
+    }
+
+    int primitiveSlots() {
+        return primitiveSlots;
+    }
+
+    public CompactPayload.Builder payload() {
+        return new CompactPayload.Builder(this);
+    }
+
+    public static final class Builder {
+        private final String type;
+        private final List<String> names = new ArrayList<>();
+        private final List<Kind> kinds = new ArrayList<>();
+
+        private Builder(String type) {
+            this.type = type;
+        }
+
+        public Builder objectField(String name) {
+            return field(name, Kind.OBJECT);
+        }
+
+        public Builder longField(String name) {
+            return field(name, Kind.LONG);
+        }
+
+        public Builder intField(String name) {
+            return field(name, Kind.INT);
+        }
+
+        public Builder doubleField(String name) {
+            return field(name, Kind.DOUBLE);
+        }
+
+        public Builder booleanField(String name) {
+            return field(name, Kind.BOOLEAN);
+        }
+
+        public Builder field(String name, Kind kind) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Duplicate field " + name + " for event type " + type);
+            }
+            if (names.size() == MAX_FIELDS) {
+                throw new IllegalArgumentException("A payload schema supports at most " + MAX_FIELDS + " fields");
+            }
+            names.add(name);
+            kinds.add(kind);
+            return this;
+        }
+
+        public PayloadSchema build() {
+            return new PayloadSchema(type, names, kinds);
+        }
+
+        /**
+         * Cria o esquema e o registra para o tipo; se já existir um registrado com os mesmos campos,
+         * retorna o existente.
+         *
+         * @throws IllegalArgumentException se o tipo já estiver registrado com campos diferentes
+         */
+        public PayloadSchema register() {
+            PayloadSchema registered = REGISTRY.computeIfAbsent(type, t -> build());
+            if (!registered.hasFields(names, kinds)) {
+                throw new IllegalArgumentException("Event type " + type + " is already registered with fields "
+                        + Arrays.toString(registered.fields) + ", cannot register " + names + " " + kinds);
+            }
+            return registered;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.libdomain.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gerador de UUIDs versão 7 (RFC 9562): 48 bits de timestamp Unix em milissegundos,
+ * 12 bits de contador e 62 bits aleatórios.
+ *
+ * Não há estado compartilhado entre threads: cada thread mantém o último timestamp e o contador,
+ * e a parte aleatória vem de {@link ThreadLocalRandom}. Dentro de uma thread os IDs são
+ * estritamente crescentes; se o contador esgotar no mesmo milissegundo, o timestamp avança
+ * um milissegundo à frente do relógio para manter a ordem.
+ */
+public final class TimeOrderedEventIdGenerator implements EventIdGenerator {
+
+    static final TimeOrderedEventIdGenerator INSTANCE = new TimeOrderedEventIdGenerator();
+
+    private static final int COUNTER_BITS = 12;
+    private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+    // new milliseconds start in the lower half of the counter, leaving room to increment
+    private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private static final class State {
+        long lastMillis = -1;
+        int counter;
+    }
+
+    private TimeOrderedEventIdGenerator() {
+    }
+
+    @Override
+    public UUID nextId() {
+        State state = STATE.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+
+        if (now > state.lastMillis) {
+            state.lastMillis = now;
+            state.counter = random.nextInt(COUNTER_SEED_BOUND);
+        } else if (state.counter < COUNTER_MAX) {
+            state.counter++;
+        } else {
+            state.lastMillis++;
+            state.counter = random.nextInt(COUNTER_SEED_BOUND);
+        }
+
+        long msb = (state.lastMillis << 16) | (0x7L << 12) | state.counter;
+        long lsb = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Timestamp de criação embutido em um UUID v7.
+     *
+     * @param id UUID gerado por este gerador (ou outro gerador v7)
+     * @return milissegundos desde a época Unix
+     * @throws IllegalArgumentException se o UUID não for versão 7
+     */
+    public static long timestampOf(UUID id) {
+        if (id.version() != 7) {
+            throw new IllegalArgumentException("Not a time-ordered (v7) UUID: " + id);
+        }
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
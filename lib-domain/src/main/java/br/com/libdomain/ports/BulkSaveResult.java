@@ -0,0 +1,34 @@
+package br.com.libdomain.ports;
+
+import java.util.List;
+
+/**
+ * Resultado de um {@link RepositoryPort#saveAll(java.util.Collection)}.
+ * Cada entidade é salva (ou rejeitada) de forma independente.
+ *
+ * @param saved    entidades persistidas
+ * @param failures entidades rejeitadas e o motivo (ex: conflito de versão)
+ * @param <T>      Tipo do agregado
+ */
+public record BulkSaveResult<T>(List<T> saved, List<Failure<T>> failures) {
+
+    /**
+     * @param entity entidade rejeitada
+     * @param error  motivo da rejeição
+     */
+    public record Failure<T>(T entity, RuntimeException error) {
+    }
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Lança a primeira falha, se houver.
+     */
+    public void throwIfFailed() {
+        if (!failures.isEmpty()) {
+            throw failures.get(0).error();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.libdomain.ports;
+
+import java.util.UUID;
+
+/**
+ * Port de deduplicação global de eventos, consultado antes de carregar o agregado.
+ * Complementa (não substitui) a idempotência do próprio agregado: um evento não marcado
+ * ainda pode ser uma duplicata, e o agregado continua sendo a fonte de verdade.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * @param eventId identificador do evento
+     * @return {@code true} se o evento já foi processado com sucesso dentro da retenção do store
+     */
+    boolean isProcessed(UUID eventId);
+
+    /**
+     * Marca o evento como processado. Deve ser chamado somente depois que o efeito do evento
+     * foi persistido, para que uma falha não bloqueie a reentrega.
+     *
+     * @param eventId identificador do evento
+     */
+    void markProcessed(UUID eventId);
+
+    /**
+     * Store que nunca reconhece eventos; toda a deduplicação fica com o agregado.
+     */
+    static IdempotencyStore none() {
+        return NoIdempotencyStore.INSTANCE;
+    }
+}
+
+enum NoIdempotencyStore implements IdempotencyStore {
+    INSTANCE;
+
+    @Override
+    public boolean isProcessed(UUID eventId) {
+        return false;
+    }
+
+    @Override
+    public void markProcessed(UUID eventId) {
+    }
+}
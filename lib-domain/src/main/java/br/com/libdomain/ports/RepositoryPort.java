@@ -1,7 +1,14 @@
 
 package br.com.libdomain.ports;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Port genérico de repositório.
@@ -28,6 +35,72 @@ public interface RepositoryPort<T, ID> {
      */
     void save(T entity);
 
+    /**
+     * Recupera várias entidades em uma única operação.
+     * Adaptadores JDBC/JPA devem mapeá-la para um único {@code SELECT ... WHERE id IN (...)}.
+     * A implementação padrão chama {@link #findById(Object)} para cada ID.
+     *
+     * @param ids identificadores
+     * @return entidades encontradas por ID, na ordem dos IDs; IDs inexistentes são omitidos
+     */
+    default Map<ID, T> findAllById(Collection<ID> ids) {
+        Map<ID, T> found = new LinkedHashMap<>();
+        for (ID id : ids) {
+            findById(id).ifPresent(entity -> found.put(id, entity));
+        }
+        return found;
+    }
+
+    /**
+     * Persiste várias entidades em uma única operação.
+     * Cada entidade é tratada de forma atômica e independente: a falha de uma (ex: conflito
+     * de versão) não impede as demais e é reportada no resultado em vez de lançada.
+     * Adaptadores JDBC/JPA devem mapeá-la para um batch de
+     * {@code UPDATE ... WHERE id = ? AND version = ?}, usando o update count de cada linha
+     * para identificar os conflitos. Adaptadores sem controle de versão gravam cada entidade
+     * incondicionalmente, e as únicas falhas reportadas são erros de gravação.
+     * A implementação padrão chama {@link #save(Object)} para cada entidade.
+     *
+     * @param entities entidades a salvar
+     * @return entidades salvas e falhas por entidade
+     */
+    default BulkSaveResult<T> saveAll(Collection<T> entities) {
+        List<T> saved = new ArrayList<>(entities.size());
+        List<BulkSaveResult.Failure<T>> failures = new ArrayList<>();
+        for (T entity : entities) {
+            try {
+                save(entity);
+                saved.add(entity);
+            } catch (RuntimeException e) {
+                failures.add(new BulkSaveResult.Failure<>(entity, e));
+            }
+        }
+        return new BulkSaveResult<>(saved, failures);
+    }
+
+    /**
+     * Aplica uma alteração de domínio de forma atômica sobre o agregado armazenado.
+     * Implementações em memória devem executar {@code mutator} diretamente sobre a instância
+     * guardada, dentro de uma única operação atômica por ID, sem cópias e sem conflitos de
+     * versão entre chamadas concorrentes para o mesmo ID.
+     * A implementação padrão faz {@link #findById(Object)} + {@link #save(Object)} e pode,
+     * portanto, lançar a exceção de conflito de versão do adaptador.
+     *
+     * @param id      identificador
+     * @param factory cria o agregado quando ele ainda não existe
+     * @param mutator aplica a alteração; deve retornar {@code false} sem modificar o agregado
+     *                quando não houver nada a aplicar
+     * @return {@code true} se a alteração foi aplicada e persistida
+     */
+    default boolean update(ID id, Function<ID, T> factory, Predicate<T> mutator) {
+        T entity = findById(id).orElseGet(() -> factory.apply(id));
+        if (!mutator.test(entity)) {
+            return false;
+        }
+        save(entity);
+        return true;
+    }
+
     /**
      * Opcional: remove a entidade pelo ID.
      *
@@ -0,0 +1,103 @@
+package br.com.libdomain.state;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Máquina de estados genérica para enums, compilada a partir de uma tabela de transições declarada.
+ *
+ * A tabela vira uma matriz de bits ({@code long[]}, uma linha de {@code ceil(n / 64)} palavras por
+ * estado de origem): verificar uma transição é um shift e um AND, sem branches por estado.
+ * A máquina é imutável depois de construída e apenas valida: quem persiste o agregado notifica os
+ * {@link TransitionListener}s depois do commit, pois uma transição válida ainda pode ser rejeitada
+ * pelo repositório (conflito de versão).
+ *
+ * <pre>{@code
+ * StateMachine<Status> machine = StateMachine.builder(Status.class)
+ *         .allowSelf()
+ *         .allow(Status.NEW, Status.CONFIRMED, Status.CANCELLED)
+ *         .build();
+ * }</pre>
+ *
+ * @param <S> enum de estados
+ */
+public final class StateMachine<S extends Enum<S>> {
+
+    private final S[] states;
+    private final int wordsPerRow;
+    private final long[] matrix;
+
+    private StateMachine(S[] states, long[] matrix) {
+        this.states = states;
+        this.wordsPerRow = wordsPerRow(states.length);
+        this.matrix = matrix;
+    }
+
+    public static <S extends Enum<S>> Builder<S> builder(Class<S> type) {
+        return new Builder<>(type);
+    }
+
+    /**
+     * @return {@code true} se a tabela permite {@code from -> to}
+     */
+    public boolean canTransition(S from, S to) {
+        int target = to.ordinal();
+        return ((matrix[from.ordinal() * wordsPerRow + (target >>> 6)] >>> target) & 1L) != 0;
+    }
+
+    /**
+     * @return estados alcançáveis a partir de {@code from} em um passo
+     */
+    public List<S> targetsOf(S from) {
+        List<S> targets = new ArrayList<>();
+        for (S to : states) {
+            int target = to.ordinal();
+            if (((matrix[from.ordinal() * wordsPerRow + (target >>> 6)] >>> target) & 1L) != 0) {
+                targets.add(to);
+            }
+        }
+        return targets;
+    }
+
+    private static int wordsPerRow(int stateCount) {
+        return (stateCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    public static final class Builder<S extends Enum<S>> {
+
+        private final S[] states;
+        private final long[] matrix;
+
+        private Builder(Class<S> type) {
+            this.states = type.getEnumConstants();
+            this.matrix = new long[states.length * wordsPerRow(states.length)];
+        }
+
+        /**
+         * Permite a transição de cada estado para ele mesmo (reaplicação idempotente).
+         */
+        public Builder<S> allowSelf() {
+            for (S state : states) {
+                set(state, state);
+            }
+            return this;
+        }
+
+        @SafeVarargs
+        public final Builder<S> allow(S from, S... targets) {
+            for (S to : targets) {
+                set(from, to);
+            }
+            return this;
+        }
+
+        public StateMachine<S> build() {
+            return new StateMachine<>(states, matrix.clone());
+        }
+
+        private void set(S from, S to) {
+            int target = to.ordinal();
+            matrix[from.ordinal() * wordsPerRow(states.length) + (target >>> 6)] |= 1L << target;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.libdomain.state;
+
+/**
+ * Notificado a cada transição que mudou o estado de um agregado já persistido
+ * (transições para o mesmo estado não são notificadas).
+ *
+ * Quem notifica é quem persiste, depois do commit: uma transição validada pela {@link StateMachine}
+ * em uma cópia que o repositório depois rejeita nunca chega aos listeners. Os listeners são injetados
+ * em quem persiste, não registrados na máquina.
+ *
+ * @param <S> enum de estados
+ */
+@FunctionalInterface
+public interface TransitionListener<S extends Enum<S>> {
+
+    void onTransition(S from, S to);
+}
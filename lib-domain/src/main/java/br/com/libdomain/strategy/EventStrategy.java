@@ -3,6 +3,9 @@ package br.com.libdomain.strategy;
 
 import br.com.libdomain.model.Event;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Estratégia para processar eventos genéricos.
  * Define um contrato para executar ações baseadas no tipo do evento.
@@ -10,4 +13,27 @@ import br.com.libdomain.model.Event;
 public interface EventStrategy {
     void execute(Event event);
     boolean supports(Event event);
+
+    /**
+     * Executa um lote de eventos suportados por esta estratégia, na ordem recebida.
+     * O padrão apenas itera chamando {@link #execute(Event)}; estratégias podem sobrescrever
+     * para, por exemplo, carregar e persistir todos os agregados do lote de uma só vez.
+     *
+     * @param events eventos suportados por esta estratégia
+     */
+    default void executeBatch(List<Event> events) {
+        events.forEach(this::execute);
+    }
+
+    /**
+     * Tipos de evento atendidos de forma estática por esta estratégia.
+     * Quando não vazio, seletores indexados podem resolver a estratégia pelo
+     * {@link Event#type()} sem chamar {@link #supports(Event)}.
+     * O padrão (conjunto vazio) indica seleção dinâmica via {@code supports}.
+     *
+     * @return tipos suportados ou conjunto vazio
+     */
+    default Set<String> supportedTypes() {
+        return Set.of();
+    }
 }
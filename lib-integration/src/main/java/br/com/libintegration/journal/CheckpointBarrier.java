@@ -0,0 +1,58 @@
+package br.com.libintegration.journal;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Separa as escritas anteriores a um checkpoint das posteriores sem bloquear os escritores.
+ *
+ * Cada escrita é registrada na época corrente com {@link #enter()} / {@link #exit(int)}, cobrindo
+ * o append no {@link Journal} e a publicação no mapa. {@link #drain()} troca a época e espera
+ * apenas as escritas que já estavam em andamento: depois dele, todo registro escrito antes da
+ * troca já está visível no mapa. Novas escritas seguem livres durante a espera e o snapshot.
+ */
+public final class CheckpointBarrier {
+
+    private final LongAdder[] inFlight = {new LongAdder(), new LongAdder()};
+    private final Object drainLock = new Object();
+    private volatile int epoch;
+
+    /**
+     * @return época a informar em {@link #exit(int)}
+     */
+    public int enter() {
+        while (true) {
+            int current = epoch;
+            LongAdder counter = inFlight[current & 1];
+            counter.increment();
+            // a drain may have flipped the epoch before the increment was visible to it
+            if (epoch == current) {
+                return current;
+            }
+            counter.decrement();
+        }
+    }
+
+    public void exit(int entered) {
+        inFlight[entered & 1].decrement();
+    }
+
+    /**
+     * Troca a época e espera as escritas registradas na anterior.
+     */
+    public void drain() {
+        synchronized (drainLock) {
+            int previous = epoch;
+            epoch = previous + 1;
+            LongAdder counter = inFlight[previous & 1];
+            int attempt = 0;
+            while (counter.sum() != 0) {
+                if (attempt++ < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(10_000);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.libintegration.journal;
+
+/**
+ * Quando os registros do journal são forçados para o disco.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Cada {@link Journal#commit(long)} força o segmento na própria thread: máxima durabilidade,
+     * um fsync por escrita.
+     */
+    PER_WRITE,
+
+    /**
+     * {@link Journal#commit(long)} espera uma thread de flush que força de uma vez tudo o que foi
+     * escrito enquanto o fsync anterior acontecia: a mesma durabilidade com um fsync por grupo.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Uma thread de flush força o segmento a cada intervalo e {@link Journal#commit(long)} não espera:
+     * latência de memória, perdendo no máximo um intervalo em caso de queda da máquina.
+     */
+    PERIODIC
+}
@@ -0,0 +1,406 @@
+package br.com.libintegration.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal append-only em arquivos de segmento mapeados em memória ({@link FileChannel#map}).
+ *
+ * Cada registro é {@code [int tamanho][int crc32c][payload]}, escrito direto no mapeamento: uma
+ * escrita custa uma cópia de memória. O tamanho é gravado por último e um tamanho zero marca o
+ * fim dos dados; no replay, um registro com CRC inválido (escrita interrompida) encerra o
+ * segmento. Quando um registro não cabe no segmento ativo, ele é forçado para o disco e um
+ * novo segmento {@code segment-<n>.log} é criado.
+ *
+ * {@link #append(ByteBuffer)} só escreve e devolve uma posição; {@link #commit(long)} aplica a
+ * {@link FsyncPolicy}. Assim o chamador pode fazer o append dentro da sua seção crítica (para
+ * preservar a ordem) e esperar o fsync fora dela.
+ */
+public final class Journal implements AutoCloseable {
+
+    private static final int HEADER = 2 * Integer.BYTES;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final JournalConfig config;
+    private final Object writeLock = new Object();
+    private final Object flushLock = new Object();
+    private final Object commitMonitor = new Object();
+    private final CRC32C crc = new CRC32C();
+    private final List<Path> sealed = new ArrayList<>();
+    private final AtomicLong durable = new AtomicLong();
+    private final Thread flusher;
+
+    // guarded by writeLock
+    private Segment active;
+
+    private volatile long written;
+    private volatile boolean running = true;
+
+    private Journal(Path directory, JournalConfig config) throws IOException {
+        this.directory = directory;
+        this.config = config;
+
+        Files.createDirectories(directory);
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(Journal::isSegment)
+                    .sorted((a, b) -> Long.compare(indexOf(a), indexOf(b)))
+                    .toList();
+        }
+        if (segments.isEmpty()) {
+            active = Segment.create(directory, 0, config.segmentSize());
+        } else {
+            sealed.addAll(segments.subList(0, segments.size() - 1));
+            Path last = segments.get(segments.size() - 1);
+            active = Segment.open(last, indexOf(last));
+            active.position = scan(active.buffer.duplicate(), 0, active.buffer.capacity(), null);
+        }
+        written = token(active.index, active.position);
+        durable.set(written);
+
+        if (config.fsyncPolicy() == FsyncPolicy.PER_WRITE) {
+            flusher = null;
+        } else {
+            flusher = new Thread(this::runFlusher, "journal-flusher-" + directory.getFileName());
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Abre (ou cria) o journal do diretório, posicionando a escrita após o último registro válido.
+     */
+    public static Journal open(Path directory, JournalConfig config) throws IOException {
+        return new Journal(directory, config);
+    }
+
+    /**
+     * Reaplica todos os registros válidos, do mais antigo para o mais novo.
+     * Deve ser chamado na inicialização, antes das escritas.
+     *
+     * @param consumer recebe cada payload como um buffer somente leitura
+     */
+    public void replay(Consumer<ByteBuffer> consumer) {
+        replayFrom(0, consumer);
+    }
+
+    /**
+     * Reaplica apenas os registros gravados a partir de {@code from}, uma posição devolvida por
+     * {@link #append(ByteBuffer)} ou {@link #position()} (tipicamente a de um snapshot).
+     *
+     * @param from     posição inicial; {@code 0} reaplica o journal inteiro
+     * @param consumer recebe cada payload como um buffer somente leitura
+     */
+    public void replayFrom(long from, Consumer<ByteBuffer> consumer) {
+        long fromIndex = from >>> 32;
+        synchronized (writeLock) {
+            for (Path path : sealed) {
+                long index = indexOf(path);
+                if (index < fromIndex) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    scan(buffer, startOf(index, from), buffer.capacity(), consumer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to replay journal segment " + path, e);
+                }
+            }
+            if (active.index >= fromIndex) {
+                scan(active.buffer.duplicate(), startOf(active.index, from), active.position, consumer);
+            }
+        }
+    }
+
+    /**
+     * @return posição logo após o último registro escrito
+     */
+    public long position() {
+        return written;
+    }
+
+    /**
+     * Apaga os segmentos selados que terminam antes de {@code position}, já cobertos por um snapshot.
+     *
+     * @return quantidade de segmentos apagados
+     */
+    public int truncateBefore(long position) {
+        long index = position >>> 32;
+        List<Path> obsolete = new ArrayList<>();
+        synchronized (writeLock) {
+            sealed.removeIf(path -> indexOf(path) < index && obsolete.add(path));
+        }
+        for (Path path : obsolete) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete journal segment " + path, e);
+            }
+        }
+        return obsolete.size();
+    }
+
+    /**
+     * Acrescenta um registro. Não espera o fsync: chame {@link #commit(long)} com o valor devolvido.
+     *
+     * @param record payload, da posição atual até o limite; não pode ser vazio
+     * @return posição do fim do registro no journal
+     */
+    public long append(ByteBuffer record) {
+        int length = record.remaining();
+        if (length == 0) {
+            throw new IllegalArgumentException("Journal records must not be empty");
+        }
+        synchronized (writeLock) {
+            if (!running) {
+                throw new IllegalStateException("Journal is closed: " + directory);
+            }
+            if (active.position + HEADER + length > active.buffer.capacity()) {
+                roll(HEADER + length);
+            }
+            MappedByteBuffer buffer = active.buffer;
+            int position = active.position;
+
+            crc.reset();
+            crc.update(record.duplicate());
+            buffer.put(position + HEADER, record, record.position(), length);
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            // length last: a zero length still marks the end if the process dies mid-record
+            buffer.putInt(position, length);
+
+            active.position = position + HEADER + length;
+            long token = token(active.index, active.position);
+            written = token;
+            return token;
+        }
+    }
+
+    /**
+     * Garante a durabilidade até {@code token} conforme a {@link FsyncPolicy}.
+     */
+    public void commit(long token) {
+        switch (config.fsyncPolicy()) {
+            case PER_WRITE -> {
+                if (durable.get() < token) {
+                    flush();
+                }
+            }
+            case GROUP_COMMIT -> awaitDurable(token);
+            case PERIODIC -> {
+                // the flusher thread forces on its own schedule
+            }
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * @return quantidade de segmentos, incluindo o ativo
+     */
+    public int segmentCount() {
+        synchronized (writeLock) {
+            return sealed.size() + 1;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        if (flusher != null) {
+            synchronized (commitMonitor) {
+                commitMonitor.notifyAll();
+            }
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        synchronized (writeLock) {
+            active.close();
+        }
+    }
+
+    private void awaitDurable(long token) {
+        synchronized (commitMonitor) {
+            commitMonitor.notifyAll();
+            while (durable.get() < token) {
+                if (!running) {
+                    flush();
+                    return;
+                }
+                try {
+                    commitMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journal commit", e);
+                }
+            }
+        }
+    }
+
+    private void runFlusher() {
+        long intervalNanos = config.flushInterval().toNanos();
+        while (running) {
+            if (config.fsyncPolicy() == FsyncPolicy.PERIODIC) {
+                LockSupport.parkNanos(intervalNanos);
+            } else {
+                synchronized (commitMonitor) {
+                    while (running && durable.get() >= written) {
+                        try {
+                            commitMonitor.wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Força o segmento ativo até a última escrita. Escritas que chegam durante o fsync
+     * formam o próximo grupo.
+     */
+    private void flush() {
+        synchronized (flushLock) {
+            Segment segment;
+            long target;
+            synchronized (writeLock) {
+                segment = active;
+                target = written;
+            }
+            if (durable.get() < target) {
+                segment.buffer.force();
+                durable.accumulateAndGet(target, Math::max);
+            }
+        }
+        synchronized (commitMonitor) {
+            commitMonitor.notifyAll();
+        }
+    }
+
+    // called with writeLock held
+    private void roll(int required) {
+        if (required > config.segmentSize()) {
+            throw new IllegalArgumentException(
+                    "Record of " + (required - HEADER) + " bytes does not fit a segment of " + config.segmentSize());
+        }
+        active.buffer.force();
+        durable.accumulateAndGet(token(active.index, active.position), Math::max);
+        active.close();
+        sealed.add(active.path);
+        try {
+            active = Segment.create(directory, active.index + 1, config.segmentSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll journal segment in " + directory, e);
+        }
+    }
+
+    /**
+     * Percorre os registros válidos do buffer de {@code start} até {@code limit}.
+     *
+     * @return posição logo após o último registro válido
+     */
+    private static int scan(ByteBuffer buffer, int start, int limit, Consumer<ByteBuffer> consumer) {
+        CRC32C checksum = new CRC32C();
+        int position = start;
+        while (position + HEADER <= limit) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER + length > limit) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(position + HEADER, length).asReadOnlyBuffer();
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            if (consumer != null) {
+                consumer.accept(payload);
+            }
+            position += HEADER + length;
+        }
+        return position;
+    }
+
+    private static int startOf(long index, long from) {
+        return index == from >>> 32 ? (int) from : 0;
+    }
+
+    private static long token(long index, int position) {
+        return (index << 32) | position;
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long indexOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static final class Segment {
+
+        final Path path;
+        final long index;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+
+        private Segment(Path path, long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, long index, int size) throws IOException {
+            Path path = directory.resolve(String.format("%s%019d%s", PREFIX, index, SUFFIX));
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment open(Path path, long index) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close journal segment " + path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.libintegration.journal;
+
+import java.time.Duration;
+
+/**
+ * @param segmentSize   tamanho de cada arquivo de segmento mapeado, em bytes
+ * @param fsyncPolicy   política de fsync
+ * @param flushInterval intervalo de flush da política {@link FsyncPolicy#PERIODIC}
+ */
+public record JournalConfig(int segmentSize, FsyncPolicy fsyncPolicy, Duration flushInterval) {
+
+    public static final JournalConfig DEFAULT =
+            new JournalConfig(64 * 1024 * 1024, FsyncPolicy.GROUP_COMMIT, Duration.ofMillis(100));
+
+    public JournalConfig {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024 bytes: " + segmentSize);
+        }
+        if (flushInterval.isZero() || flushInterval.isNegative()) {
+            throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+        }
+    }
+}
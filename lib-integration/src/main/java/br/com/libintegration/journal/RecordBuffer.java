@@ -0,0 +1,78 @@
+package br.com.libintegration.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Buffer reutilizável para montar um registro binário antes do {@link Journal#append(ByteBuffer)}.
+ * Cresce sob demanda; os métodos estáticos leem os mesmos formatos de volta no replay.
+ */
+public final class RecordBuffer {
+
+    private ByteBuffer buffer;
+
+    public RecordBuffer(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    public RecordBuffer clear() {
+        buffer.clear();
+        return this;
+    }
+
+    public RecordBuffer putByte(int value) {
+        ensure(1).put((byte) value);
+        return this;
+    }
+
+    public RecordBuffer putInt(int value) {
+        ensure(Integer.BYTES).putInt(value);
+        return this;
+    }
+
+    public RecordBuffer putLong(long value) {
+        ensure(Long.BYTES).putLong(value);
+        return this;
+    }
+
+    public RecordBuffer putUuid(UUID value) {
+        ensure(2 * Long.BYTES).putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+        return this;
+    }
+
+    /**
+     * String UTF-8 prefixada pelo tamanho em bytes.
+     */
+    public RecordBuffer putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+        return this;
+    }
+
+    /**
+     * @return visão do registro montado, da posição 0 até o último byte escrito
+     */
+    public ByteBuffer flip() {
+        return buffer.duplicate().flip();
+    }
+
+    public static UUID getUuid(ByteBuffer source) {
+        return new UUID(source.getLong(), source.getLong());
+    }
+
+    public static String getString(ByteBuffer source) {
+        byte[] bytes = new byte[source.getInt()];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
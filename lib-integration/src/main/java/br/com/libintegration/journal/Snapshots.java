@@ -0,0 +1,257 @@
+package br.com.libintegration.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshots binários de um store, complementares ao {@link Journal}.
+ *
+ * Um arquivo {@code snapshot-<posição do journal>.snap} contém blocos de registros
+ * {@code [int tamanho][payload]} seguidos de um índice {@code (offset, tamanho, crc32c)} por
+ * bloco e de um rodapé {@code [int blocos][long posição][int magic]}. O arquivo é escrito em um
+ * temporário, forçado e renomeado atomicamente, então nunca fica visível pela metade.
+ *
+ * A carga lê o índice, mapeia cada bloco separadamente, valida os blocos e os decodifica em
+ * paralelo: o consumidor precisa ser thread-safe. Depois dela basta reaplicar o journal a partir
+ * da posição devolvida.
+ * Os dois snapshots mais recentes são mantidos; se o mais novo estiver corrompido, o anterior é usado.
+ */
+public final class Snapshots {
+
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int FOOTER = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int INDEX_ENTRY = Long.BYTES + 2 * Integer.BYTES;
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int KEEP = 2;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private Snapshots() {
+    }
+
+    /**
+     * Escreve um snapshot. A fonte entrega cada registro ao consumidor recebido, na thread atual.
+     *
+     * @param directory diretório dos snapshots do store
+     * @param position  posição do journal coberta pelo snapshot
+     * @param source    produz os registros do snapshot
+     * @return posição do snapshot anterior ainda mantido (o journal antes dela pode ser apagado),
+     *         ou {@code 0} se não houver
+     */
+    public static long write(Path directory, long position, Consumer<Consumer<ByteBuffer>> source) {
+        Path target = directory.resolve(String.format("%s%019d%s", PREFIX, position, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ChunkWriter writer = new ChunkWriter(channel);
+                source.accept(writer);
+                writer.finish(position);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + target, e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // best effort: a leftover temporary file is never loaded
+            }
+        }
+
+        List<Path> snapshots = list(directory);
+        for (Path obsolete : snapshots.subList(Math.min(KEEP, snapshots.size()), snapshots.size())) {
+            try {
+                Files.deleteIfExists(obsolete);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete snapshot " + obsolete, e);
+            }
+        }
+        return snapshots.size() > 1 ? positionOf(snapshots.get(1)) : 0;
+    }
+
+    /**
+     * Carrega o snapshot válido mais recente.
+     *
+     * @param consumer recebe cada registro como buffer somente leitura, possivelmente em paralelo
+     * @return posição do journal coberta pelo snapshot carregado, vazio se não houver nenhum
+     */
+    public static OptionalLong load(Path directory, Consumer<ByteBuffer> consumer) {
+        for (Path path : list(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer footer = size < FOOTER ? null : readAt(channel, size - FOOTER, FOOTER);
+                MappedByteBuffer[] chunks = footer == null ? null : validate(channel, size, footer);
+                if (chunks == null) {
+                    System.out.println("Ignoring corrupted snapshot " + path);
+                    continue;
+                }
+                IntStream.range(0, chunks.length).parallel().forEach(chunk -> {
+                    ByteBuffer records = chunks[chunk].asReadOnlyBuffer();
+                    while (records.hasRemaining()) {
+                        int length = records.getInt();
+                        consumer.accept(records.slice(records.position(), length));
+                        records.position(records.position() + length);
+                    }
+                });
+                return OptionalLong.of(footer.getLong(Integer.BYTES));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load snapshot " + path, e);
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Lê o índice do rodapé e mapeia cada bloco separadamente, então o tamanho do arquivo não é
+     * limitado aos 2 GB de um único {@link MappedByteBuffer}; só um bloco precisa caber em um.
+     *
+     * @return blocos mapeados, na ordem do índice, ou {@code null} se o arquivo for inválido
+     */
+    private static MappedByteBuffer[] validate(FileChannel channel, long size, ByteBuffer footer) throws IOException {
+        if (footer.getInt(FOOTER - Integer.BYTES) != MAGIC) {
+            return null;
+        }
+        int count = footer.getInt(0);
+        long indexStart = size - FOOTER - (long) count * INDEX_ENTRY;
+        if (count < 0 || indexStart < 0) {
+            return null;
+        }
+        ByteBuffer index = readAt(channel, indexStart, count * INDEX_ENTRY);
+        long[] offsets = new long[count];
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            long offset = index.getLong(i * INDEX_ENTRY);
+            int length = index.getInt(i * INDEX_ENTRY + Long.BYTES);
+            if (offset < 0 || length < 0 || offset + length > indexStart) {
+                return null;
+            }
+            offsets[i] = offset;
+            lengths[i] = length;
+        }
+        MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+        boolean valid = IntStream.range(0, count).parallel().allMatch(i -> {
+            try {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offsets[i], lengths[i]);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map snapshot chunk at " + offsets[i], e);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(chunks[i].duplicate());
+            return (int) crc.getValue() == index.getInt(i * INDEX_ENTRY + Long.BYTES + Integer.BYTES);
+        });
+        return valid ? chunks : null;
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * @return snapshots do diretório, do mais novo para o mais antigo
+     */
+    private static List<Path> list(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(Snapshots::positionOf).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list snapshots in " + directory, e);
+        }
+    }
+
+    private static long positionOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Acumula registros em blocos de ~1 MB; cada bloco cheio é gravado e indexado.
+     */
+    private static final class ChunkWriter implements Consumer<ByteBuffer> {
+
+        private final FileChannel channel;
+        private final CRC32C crc = new CRC32C();
+        private final List<long[]> index = new ArrayList<>();
+        private ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        private long offset;
+
+        ChunkWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void accept(ByteBuffer record) {
+            int length = record.remaining();
+            if (chunk.remaining() < Integer.BYTES + length) {
+                flushChunk();
+                if (chunk.capacity() < Integer.BYTES + length) {
+                    chunk = ByteBuffer.allocateDirect(Integer.BYTES + length);
+                }
+            }
+            chunk.putInt(length).put(record.duplicate());
+        }
+
+        void finish(long position) throws IOException {
+            flushChunk();
+            ByteBuffer trailer = ByteBuffer.allocate(index.size() * INDEX_ENTRY + FOOTER);
+            for (long[] entry : index) {
+                trailer.putLong(entry[0]).putInt((int) entry[1]).putInt((int) entry[2]);
+            }
+            trailer.putInt(index.size()).putLong(position).putInt(MAGIC).flip();
+            writeFully(trailer);
+        }
+
+        private void flushChunk() {
+            if (chunk.position() == 0) {
+                return;
+            }
+            chunk.flip();
+            crc.reset();
+            crc.update(chunk.duplicate());
+            index.add(new long[]{offset, chunk.remaining(), crc.getValue()});
+            offset += chunk.remaining();
+            try {
+                writeFully(chunk);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write snapshot chunk", e);
+            }
+            chunk.clear();
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package br.com.libintegration.timer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Timing wheel hierárquico com hashing (Varghese & Lauck): milhões de timeouts pendentes com
+ * custo constante por operação e uma única thread de ticker.
+ *
+ * São quatro níveis de {@code wheelSize} buckets; um bucket do nível {@code n} cobre
+ * {@code wheelSize^n} ticks. Um timeout entra no nível mais baixo que alcança o seu prazo, e
+ * quando o cursor de um nível dá a volta o bucket correspondente do nível de cima é redistribuído
+ * (cascata) nos níveis de baixo. Prazos além do último nível ficam no último bucket e são
+ * redistribuídos até caberem.
+ *
+ * {@link #schedule} e {@link Timeout#cancel()} são O(1) e livres de lock: só publicam o timeout
+ * numa fila, e o ticker o encaixa (ou desencaixa) da lista duplamente encadeada do bucket no
+ * próximo tick. Um timeout termina exatamente uma vez: ou cancelado, ou expirado. O callback de
+ * expiração roda na thread do ticker e deve ser curto: trabalho com I/O deve ser repassado a um
+ * executor.
+ *
+ * @param <T> valor associado a cada timeout, entregue ao callback de expiração
+ */
+public final class TimingWheel<T> implements AutoCloseable {
+
+    private static final int LEVELS = 4;
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final long horizon;
+    private final Consumer<? super T> onExpiry;
+    private final LongSupplier clock;
+    private final long origin;
+    private final Bucket<T>[][] wheels;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<T>> cancelled = new ConcurrentLinkedQueue<>();
+    private final LongAdder pending = new LongAdder();
+    private final Object tickLock = new Object();
+
+    // guarded by tickLock: ticks já processados desde a origem
+    private long tick;
+
+    private volatile Thread ticker;
+    private volatile boolean running = true;
+
+    /**
+     * Cria um wheel sem ticker, avançado só por chamadas a {@link #advance()}.
+     *
+     * @param tick      resolução: um timeout expira no máximo um tick depois do prazo
+     * @param wheelSize buckets por nível, potência de dois
+     * @param onExpiry  chamado na thread do ticker para cada timeout expirado
+     * @param clock     relógio em nanossegundos, como {@link System#nanoTime()}
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, int wheelSize, Consumer<? super T> onExpiry, LongSupplier clock) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+        if (wheelSize < 2 || wheelSize > 1 << 15 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two between 2 and 32768: " + wheelSize);
+        }
+        this.tickNanos = tick.toNanos();
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.horizon = 1L << (bits * LEVELS);
+        this.onExpiry = onExpiry;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.wheels = new Bucket[LEVELS][wheelSize];
+        for (Bucket<T>[] wheel : wheels) {
+            for (int i = 0; i < wheelSize; i++) {
+                wheel[i] = new Bucket<>();
+            }
+        }
+    }
+
+    /**
+     * Cria um wheel sobre {@link System#nanoTime()} com uma thread daemon de ticker.
+     */
+    public static <T> TimingWheel<T> start(String name, Duration tick, int wheelSize, Consumer<? super T> onExpiry) {
+        TimingWheel<T> wheel = new TimingWheel<>(tick, wheelSize, onExpiry, System::nanoTime);
+        Thread thread = new Thread(wheel::runTicker, name);
+        thread.setDaemon(true);
+        wheel.ticker = thread;
+        thread.start();
+        return wheel;
+    }
+
+    /**
+     * Agenda {@code value} para expirar após {@code delay}; um atraso nulo ou negativo expira no
+     * próximo tick.
+     */
+    public Timeout<T> schedule(T value, Duration delay) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+        long elapsed = clock.getAsLong() - origin + Math.max(0, delay.toNanos());
+        Timeout<T> timeout = new Timeout<>(this, value, Math.ceilDiv(elapsed, tickNanos));
+        pending.increment();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Processa todos os ticks decorridos até agora: encaixa os timeouts novos, remove os
+     * cancelados, faz as cascatas e expira os buckets vencidos.
+     *
+     * @return quantidade de timeouts expirados
+     */
+    public int advance() {
+        long now = (clock.getAsLong() - origin) / tickNanos;
+        int expired = 0;
+        synchronized (tickLock) {
+            unlinkCancelled();
+            while (tick < now) {
+                tick++;
+                cascade();
+                placeScheduled();
+                expired += expire(wheels[0][(int) (tick & mask)]);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Timeouts ainda não expirados nem cancelados.
+     */
+    public long pending() {
+        return pending.sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        Thread thread = ticker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runTicker() {
+        while (running) {
+            advance();
+            long next;
+            synchronized (tickLock) {
+                next = origin + (tick + 1) * tickNanos;
+            }
+            long wait = next - clock.getAsLong();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout<T> timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void placeScheduled() {
+        Timeout<T> timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state == Timeout.PENDING) {
+                place(timeout);
+            }
+        }
+    }
+
+    /**
+     * A cada volta completa do nível {@code n - 1}, redistribui o bucket atual do nível {@code n}.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = bits * level;
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            Timeout<T> timeout = wheels[level][(int) ((tick >>> shift) & mask)].detach();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.next = null;
+                if (timeout.state == Timeout.PENDING) {
+                    place(timeout);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = Math.min(Math.max(0, timeout.deadline - tick), horizon - 1);
+        int level = 0;
+        while (delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        long at = tick + delta;
+        wheels[level][(int) ((at >>> (bits * level)) & mask)].add(timeout);
+    }
+
+    private int expire(Bucket<T> bucket) {
+        int expired = 0;
+        Timeout<T> timeout = bucket.detach();
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            if (timeout.deadline > tick) {
+                // só acontece com prazos além do horizonte
+                place(timeout);
+            } else if (Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+                pending.decrement();
+                expired++;
+                try {
+                    onExpiry.accept(timeout.value);
+                } catch (Throwable t) {
+                    // o ticker é único: nenhuma falha de callback pode encerrá-lo
+                    System.out.println("Timing wheel expiry callback failed: " + t);
+                }
+            }
+            timeout = next;
+        }
+        return expired;
+    }
+
+    /**
+     * Handle de um valor agendado.
+     */
+    public static final class Timeout<T> {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Timeout.class, "state", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final TimingWheel<T> wheel;
+        private final T value;
+        private final long deadline;
+        private volatile int state;
+
+        // guarded by the ticker
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(TimingWheel<T> wheel, T value, long deadline) {
+            this.wheel = wheel;
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        /**
+         * @return {@code true} se este cancelamento impediu a expiração; {@code false} se o
+         *         timeout já tinha expirado ou sido cancelado
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrement();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    /**
+     * Lista duplamente encadeada intrusiva; acessada só pelo ticker.
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Esvazia o bucket e devolve a lista (encadeada por {@code next}) dos seus timeouts.
+         */
+        Timeout<T> detach() {
+            Timeout<T> first = head;
+            head = null;
+            for (Timeout<T> timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.prev = null;
+            }
+            return first;
+        }
+    }
+}
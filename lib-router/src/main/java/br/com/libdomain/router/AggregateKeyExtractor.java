@@ -0,0 +1,41 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+
+import java.util.List;
+
+/**
+ * Extrai a chave do agregado ao qual um evento pertence.
+ * Eventos com a mesma chave são processados em ordem pelos roteadores particionados.
+ */
+@FunctionalInterface
+public interface AggregateKeyExtractor {
+
+    /**
+     * @param event evento
+     * @return chave do agregado ou {@code null} se o evento não tiver chave
+     */
+    Object keyOf(Event event);
+
+    /**
+     * Usa o primeiro campo não nulo do payload, na ordem informada (ex: paymentId, orderId).
+     *
+     * @param fields nomes dos campos candidatos
+     * @return extrator baseado no payload
+     */
+    static AggregateKeyExtractor payloadFields(List<String> fields) {
+        String[] names = fields.toArray(new String[0]);
+        return event -> {
+            if (event.payload() == null) {
+                return null;
+            }
+            for (String name : names) {
+                Object value = event.payload().get(name);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        };
+    }
+}
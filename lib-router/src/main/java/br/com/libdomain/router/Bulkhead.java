@@ -0,0 +1,283 @@
+package br.com.libdomain.router;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compartimento isolado de execução para uma estratégia (ou grupo de estratégias).
+ * Cada bulkhead possui seu próprio pool limitado a {@code maxConcurrency} threads, uma fila de
+ * {@code queueCapacity} posições e um timeout de execução, de modo que uma estratégia lenta
+ * só consome os seus próprios recursos.
+ *
+ * Um timeout libera o roteador, mas não interrompe a execução em andamento (uma estratégia no
+ * meio de uma gravação termina normalmente); uma execução ainda na fila é descartada.
+ *
+ * A admissão é controlada por um semáforo de {@code maxConcurrency + queueCapacity} permissões
+ * na frente do pool: BLOCK espera por uma permissão e então entrega a execução ao pool pelo
+ * caminho normal, de modo que um bulkhead encerrado rejeita a execução em vez de deixá-la
+ * esquecida na fila.
+ *
+ * @see BulkheadStrategy
+ */
+public class Bulkhead implements AutoCloseable {
+
+    /**
+     * @param maxConcurrency    execuções simultâneas
+     * @param queueCapacity     execuções aguardando além das simultâneas
+     * @param timeout           tempo máximo de uma execução
+     * @param waitForCompletion se {@code true}, o roteador aguarda o resultado (até o timeout) e recebe
+     *                          as falhas; se {@code false}, a execução é adiada e o roteador segue em
+     *                          frente (o timeout não se aplica). Execuções adiadas rodam uma por vez, na
+     *                          ordem de chegada, para preservar a ordem por agregado do roteador; por
+     *                          isso exigem {@code maxConcurrency == 1} e não aceitam CALLER_RUNS. A falha
+     *                          de uma execução adiada é contada em {@link #failed()} e entregue ao
+     *                          {@link DeferredFailureListener}; ela nunca chega ao roteador, que já
+     *                          seguiu em frente, nem afeta as execuções seguintes
+     * @param overflowPolicy    o que fazer quando o bulkhead está saturado (REJECT descarta a carga)
+     */
+    public record Config(int maxConcurrency,
+                         int queueCapacity,
+                         Duration timeout,
+                         boolean waitForCompletion,
+                         OverflowPolicy overflowPolicy) {
+
+        public static final Config DEFAULT =
+                new Config(4, 100, Duration.ofSeconds(5), true, OverflowPolicy.REJECT);
+
+        public Config {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            if (queueCapacity < 0) {
+                throw new IllegalArgumentException("queueCapacity must not be negative: " + queueCapacity);
+            }
+            if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+                throw new IllegalArgumentException("timeout must be positive: " + timeout);
+            }
+            if (overflowPolicy == null) {
+                throw new IllegalArgumentException("overflowPolicy must not be null");
+            }
+            if (!waitForCompletion && maxConcurrency > 1) {
+                throw new IllegalArgumentException("deferred execution (waitForCompletion=false) requires "
+                        + "maxConcurrency=1 to keep events of the same aggregate in order: " + maxConcurrency);
+            }
+            if (!waitForCompletion && overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+                throw new IllegalArgumentException("deferred execution (waitForCompletion=false) cannot use "
+                        + "CALLER_RUNS: the caller would overtake queued events");
+            }
+        }
+    }
+
+    /**
+     * Recebe as falhas de execuções adiadas, que ninguém está aguardando.
+     */
+    @FunctionalInterface
+    public interface DeferredFailureListener {
+
+        DeferredFailureListener PRINT = (bulkhead, subject, failure) ->
+                System.out.println("Bulkhead " + bulkhead + " deferred execution failed for " + subject + ": " + failure);
+
+        /**
+         * @param bulkhead nome do bulkhead
+         * @param subject  o que falhou (o evento ou lote informado em {@link #execute(Runnable, Object)})
+         * @param failure  falha da execução
+         */
+        void failed(String bulkhead, Object subject, Throwable failure);
+    }
+
+    private final String name;
+    private final Config config;
+    private final DeferredFailureListener failureListener;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public Bulkhead(String name, Config config) {
+        this(name, config, DeferredFailureListener.PRINT);
+    }
+
+    public Bulkhead(String name, Config config, DeferredFailureListener failureListener) {
+        this.name = name;
+        this.config = config;
+        this.failureListener = failureListener;
+        this.permits = new Semaphore(config.maxConcurrency() + config.queueCapacity());
+        AtomicInteger threadIndex = new AtomicInteger();
+        // the queue never fills: the permits bound it to queueCapacity
+        this.executor = new ThreadPoolExecutor(
+                config.maxConcurrency(), config.maxConcurrency(), 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Executa o trabalho dentro do bulkhead, aplicando a política de saturação e o timeout.
+     *
+     * @param work trabalho a executar
+     */
+    public void execute(Runnable work) {
+        execute(work, work);
+    }
+
+    /**
+     * Executa o trabalho dentro do bulkhead, aplicando a política de saturação e o timeout.
+     * No modo adiado, uma falha é atribuída a {@code subject} e não afeta as chamadas seguintes.
+     *
+     * @param work    trabalho a executar
+     * @param subject o que o trabalho processa (evento ou lote), para reportar falhas adiadas
+     */
+    public void execute(Runnable work, Object subject) {
+        if (!config.waitForCompletion()) {
+            // deferred: nobody waits for the result, so the failure goes to the listener
+            submit(new FutureTask<>(() -> {
+                try {
+                    work.run();
+                } catch (Throwable t) {
+                    failed.increment();
+                    reportDeferred(subject, t);
+                }
+            }, null));
+            return;
+        }
+
+        FutureTask<Void> task = new FutureTask<>(work, null);
+        submit(task);
+        await(task);
+    }
+
+    private void submit(FutureTask<Void> task) {
+        if (!permits.tryAcquire()) {
+            switch (config.overflowPolicy()) {
+                case CALLER_RUNS -> {
+                    task.run();
+                    return;
+                }
+                case BLOCK -> {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for bulkhead " + name, e);
+                    }
+                }
+                default -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Bulkhead " + name + " is saturated");
+                }
+            }
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shut down: the pool never takes the task, so the permit is not released by it
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void reportDeferred(Object subject, Throwable failure) {
+        try {
+            failureListener.failed(name, subject, failure);
+        } catch (Throwable t) {
+            System.out.println("Bulkhead " + name + " failure listener failed: " + t);
+        }
+    }
+
+    private void await(Future<Void> task) {
+        try {
+            task.get(config.timeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // a running strategy is left to finish; a queued one never starts
+            task.cancel(false);
+            timedOut.increment();
+            throw new IllegalStateException("Bulkhead " + name + " timed out after " + config.timeout(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for bulkhead " + name, e);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Bulkhead " + name + " execution cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Config config() {
+        return config;
+    }
+
+    /**
+     * @return execuções em andamento
+     */
+    public int active() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return execuções aguardando na fila
+     */
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long timedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return execuções adiadas que falharam (reportadas ao {@link DeferredFailureListener})
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cria e mantém os {@link Bulkhead}s por nome de grupo e encerra todos no {@link #close()}.
+ */
+public class BulkheadRegistry implements AutoCloseable {
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Function<String, Bulkhead.Config> configByGroup;
+    private final Bulkhead.DeferredFailureListener failureListener;
+
+    /**
+     * @param configByGroup configuração de cada grupo (nome do grupo -> configuração)
+     */
+    public BulkheadRegistry(Function<String, Bulkhead.Config> configByGroup) {
+        this(configByGroup, Bulkhead.DeferredFailureListener.PRINT);
+    }
+
+    /**
+     * @param configByGroup   configuração de cada grupo (nome do grupo -> configuração)
+     * @param failureListener destino das falhas de execuções adiadas de todos os grupos
+     */
+    public BulkheadRegistry(Function<String, Bulkhead.Config> configByGroup,
+                            Bulkhead.DeferredFailureListener failureListener) {
+        this.configByGroup = configByGroup;
+        this.failureListener = failureListener;
+    }
+
+    public Bulkhead bulkhead(String group) {
+        return bulkheads.computeIfAbsent(group, name -> new Bulkhead(name, configByGroup.apply(name), failureListener));
+    }
+
+    /**
+     * Isola cada estratégia no bulkhead do seu grupo, preservando a ordem.
+     *
+     * @param strategies estratégias originais
+     * @param groupOf    grupo de cada estratégia
+     * @return estratégias isoladas
+     */
+    public List<EventStrategy> wrapAll(List<EventStrategy> strategies, Function<EventStrategy, String> groupOf) {
+        return strategies.stream()
+                .<EventStrategy>map(strategy -> new BulkheadStrategy(strategy, bulkhead(groupOf.apply(strategy))))
+                .toList();
+    }
+
+    public Map<String, Bulkhead> bulkheads() {
+        return Map.copyOf(bulkheads);
+    }
+
+    @Override
+    public void close() {
+        bulkheads.values().forEach(Bulkhead::close);
+    }
+}
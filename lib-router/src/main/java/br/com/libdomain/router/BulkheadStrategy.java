@@ -0,0 +1,51 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decorador que executa a estratégia dentro de um {@link Bulkhead}.
+ * A seleção ({@code supports}/{@code supportedTypes}) continua na thread do roteador;
+ * apenas a execução é isolada. Estratégias que compartilham o mesmo bulkhead formam um grupo.
+ */
+public class BulkheadStrategy implements EventStrategy {
+
+    private final EventStrategy delegate;
+    private final Bulkhead bulkhead;
+
+    public BulkheadStrategy(EventStrategy delegate, Bulkhead bulkhead) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public void execute(Event event) {
+        bulkhead.execute(() -> delegate.execute(event), event);
+    }
+
+    @Override
+    public void executeBatch(List<Event> events) {
+        bulkhead.execute(() -> delegate.executeBatch(events), events);
+    }
+
+    @Override
+    public boolean supports(Event event) {
+        return delegate.supports(event);
+    }
+
+    @Override
+    public Set<String> supportedTypes() {
+        return delegate.supportedTypes();
+    }
+
+    public EventStrategy delegate() {
+        return delegate;
+    }
+
+    public Bulkhead bulkhead() {
+        return bulkhead;
+    }
+}
@@ -4,7 +4,11 @@ package br.com.libdomain.router;
 import br.com.libdomain.model.Event;
 import br.com.libdomain.strategy.EventStrategy;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Roteador de eventos que direciona eventos para as estratégias apropriadas.
@@ -18,11 +22,59 @@ public class EventRouter {
         this.selector = selector;
     }
 
+    /**
+     * Roteia um lote agrupando os eventos por estratégia e chamando
+     * {@link EventStrategy#executeBatch(List)} uma vez por estratégia.
+     * A ordem dos eventos é preservada dentro de cada estratégia; as estratégias
+     * executam na ordem em que aparecem no lote.
+     */
     public void route(List<Event> events) {
-        events.forEach(this::route);
+        dispatchBatch(events);
     }
 
     public void route(Event event) {
+        dispatch(event);
+    }
+
+    /**
+     * Versão não bloqueante de {@link #route(Event)}.
+     * Nesta implementação o evento é processado na thread atual e o future já retorna concluído;
+     * roteadores com filas próprias sobrescrevem este método.
+     *
+     * @param event evento a rotear
+     * @return future concluído quando todas as estratégias do evento terminarem
+     */
+    public CompletableFuture<Void> routeAsync(Event event) {
+        try {
+            route(event);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Versão não bloqueante de {@link #route(List)}.
+     *
+     * @param events eventos a rotear
+     * @return future concluído quando todos os eventos do lote terminarem
+     */
+    public CompletableFuture<Void> routeAsync(List<Event> events) {
+        try {
+            route(events);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Seleciona e executa as estratégias do evento na thread atual.
+     * Implementações alternativas de {@link #route(Event)} delegam para este método.
+     *
+     * @param event evento a despachar
+     */
+    protected void dispatch(Event event) {
         List<EventStrategy> strategies = selector.selectAll(event);
 
         if (strategies.isEmpty()) {
@@ -33,4 +85,31 @@ public class EventRouter {
 
         strategies.forEach(strategy -> strategy.execute(event));
     }
+
+    /**
+     * Agrupa o lote por estratégia e executa cada grupo na thread atual.
+     * Todo o lote é validado antes da execução: se algum evento não tiver estratégia,
+     * nenhum evento é executado.
+     *
+     * @param events eventos a despachar
+     */
+    protected void dispatchBatch(List<Event> events) {
+        Map<EventStrategy, List<Event>> byStrategy = new LinkedHashMap<>();
+
+        for (Event event : events) {
+            List<EventStrategy> strategies = selector.selectAll(event);
+
+            if (strategies.isEmpty()) {
+                throw new IllegalStateException(
+                        "No strategies found for event type=" + event.type()
+                );
+            }
+
+            for (EventStrategy strategy : strategies) {
+                byStrategy.computeIfAbsent(strategy, s -> new ArrayList<>()).add(event);
+            }
+        }
+
+        byStrategy.forEach(EventStrategy::executeBatch);
+    }
 }
@@ -0,0 +1,106 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Seletor de estratégias indexado por tipo de evento.
+ * Na construção monta uma tabela imutável {@code type -> estratégias} a partir de
+ * {@link EventStrategy#supportedTypes()}; estratégias sem tipos estáticos continuam
+ * sendo avaliadas via {@link EventStrategy#supports(Event)}.
+ * Quando um tipo só possui estratégias estáticas, a lista retornada é pré-calculada
+ * e reutilizada, sem alocação por evento. Eventos sem tipo só são avaliados pelas
+ * estratégias dinâmicas.
+ */
+public class IndexedStrategySelector implements StrategySelector {
+
+    private final Map<String, Entry> index;
+    private final Entry dynamicOnly;
+
+    public IndexedStrategySelector(List<EventStrategy> strategies) {
+        Set<String> types = new LinkedHashSet<>();
+        for (EventStrategy strategy : strategies) {
+            types.addAll(strategy.supportedTypes());
+        }
+
+        Map<String, Entry> byType = new HashMap<>();
+        for (String type : types) {
+            byType.put(type, Entry.resolve(strategies, type));
+        }
+
+        this.index = Map.copyOf(byType);
+        this.dynamicOnly = Entry.resolve(strategies, null);
+    }
+
+    @Override
+    public List<EventStrategy> selectAll(Event event) {
+        // Map.copyOf rejects null lookups
+        String type = event.type();
+        Entry entry = type != null ? index.get(type) : null;
+        return (entry != null ? entry : dynamicOnly).select(event);
+    }
+
+    /**
+     * Estratégias candidatas para um tipo, na ordem de registro.
+     * {@code dynamic[i]} indica se {@code candidates[i]} precisa de {@code supports()}.
+     */
+    private static final class Entry {
+
+        private final EventStrategy[] candidates;
+        private final boolean[] dynamic;
+        private final List<EventStrategy> cached;
+
+        private Entry(EventStrategy[] candidates, boolean[] dynamic, boolean hasDynamic) {
+            this.candidates = candidates;
+            this.dynamic = dynamic;
+            this.cached = hasDynamic ? null : Collections.unmodifiableList(Arrays.asList(candidates));
+        }
+
+        static Entry resolve(List<EventStrategy> strategies, String type) {
+            List<EventStrategy> candidates = new ArrayList<>();
+            List<Boolean> dynamic = new ArrayList<>();
+            boolean hasDynamic = false;
+
+            for (EventStrategy strategy : strategies) {
+                Set<String> declared = strategy.supportedTypes();
+                if (declared.isEmpty()) {
+                    candidates.add(strategy);
+                    dynamic.add(true);
+                    hasDynamic = true;
+                } else if (type != null && declared.contains(type)) {
+                    candidates.add(strategy);
+                    dynamic.add(false);
+                }
+            }
+
+            boolean[] flags = new boolean[dynamic.size()];
+            for (int i = 0; i < flags.length; i++) {
+                flags[i] = dynamic.get(i);
+            }
+            return new Entry(candidates.toArray(new EventStrategy[0]), flags, hasDynamic);
+        }
+
+        List<EventStrategy> select(Event event) {
+            if (cached != null) {
+                return cached;
+            }
+
+            List<EventStrategy> selected = new ArrayList<>(candidates.length);
+            for (int i = 0; i < candidates.length; i++) {
+                if (!dynamic[i] || candidates[i].supports(event)) {
+                    selected.add(candidates[i]);
+                }
+            }
+            return selected;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decorador de {@link EventStrategy} que mede a duração de {@code execute}/{@code executeBatch}.
+ * Deve envolver as estratégias antes de construir o seletor, para que tabelas pré-calculadas
+ * (ex: {@link IndexedStrategySelector}) já contenham as versões instrumentadas.
+ */
+public class InstrumentedStrategy implements EventStrategy {
+
+    private final EventStrategy delegate;
+    private final RouterInstrumentation instrumentation;
+
+    public InstrumentedStrategy(EventStrategy delegate, RouterInstrumentation instrumentation) {
+        this.delegate = delegate;
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Envolve todas as estratégias com a mesma instrumentação.
+     *
+     * @param strategies      estratégias originais
+     * @param instrumentation instrumentação
+     * @return estratégias instrumentadas, na mesma ordem
+     */
+    public static List<EventStrategy> wrapAll(List<EventStrategy> strategies, RouterInstrumentation instrumentation) {
+        return strategies.stream()
+                .<EventStrategy>map(strategy -> new InstrumentedStrategy(strategy, instrumentation))
+                .toList();
+    }
+
+    @Override
+    public void execute(Event event) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.execute(event);
+            failed = false;
+        } finally {
+            instrumentation.executed(delegate, 1, System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public void executeBatch(List<Event> events) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.executeBatch(events);
+            failed = false;
+        } finally {
+            instrumentation.executed(delegate, events.size(), System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public boolean supports(Event event) {
+        return delegate.supports(event);
+    }
+
+    @Override
+    public Set<String> supportedTypes() {
+        return delegate.supportedTypes();
+    }
+
+    public EventStrategy delegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.List;
+
+/**
+ * Decorador de {@link StrategySelector} que reporta cada seleção para a instrumentação,
+ * incluindo seleções vazias. Funciona com qualquer implementação de {@link EventRouter}.
+ */
+public class InstrumentedStrategySelector implements StrategySelector {
+
+    private final StrategySelector delegate;
+    private final RouterInstrumentation instrumentation;
+
+    public InstrumentedStrategySelector(StrategySelector delegate, RouterInstrumentation instrumentation) {
+        this.delegate = delegate;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public List<EventStrategy> selectAll(Event event) {
+        List<EventStrategy> strategies = delegate.selectAll(event);
+        instrumentation.selected(event, strategies.size());
+        return strategies;
+    }
+}
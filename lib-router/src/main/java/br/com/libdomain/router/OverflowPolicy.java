@@ -0,0 +1,23 @@
+package br.com.libdomain.router;
+
+/**
+ * Comportamento do roteador assíncrono quando o limite de eventos em andamento é atingido.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Bloqueia o produtor até que haja espaço (backpressure).
+     */
+    BLOCK,
+
+    /**
+     * Rejeita o evento: o future retornado falha com {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    REJECT,
+
+    /**
+     * Executa o evento na thread do produtor, desacelerando-o naturalmente.
+     * Não preserva a ordem em relação a eventos do mesmo agregado ainda na fila.
+     */
+    CALLER_RUNS
+}
@@ -0,0 +1,246 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roteador que distribui eventos entre N lanes de execução pela chave do agregado.
+ * Cada lane é uma única thread com fila FIFO limitada: agregados diferentes são processados em
+ * paralelo, enquanto eventos do mesmo agregado mantêm a ordem de submissão.
+ * Eventos sem chave são distribuídos pelo {@code eventId}.
+ *
+ * {@code route} continua síncrono: só retorna quando todos os eventos submetidos terminaram.
+ * {@code routeAsync} apenas enfileira e devolve um future. O total de eventos em andamento é
+ * limitado por {@code maxInFlight}; acima disso vale a {@link OverflowPolicy} configurada.
+ *
+ * Em lotes, os eventos de cada lane são despachados com {@link #dispatchBatch(List)}.
+ * Se uma estratégia falhar, o restante daquela lane no lote não é executado
+ * e a primeira falha é propagada.
+ *
+ * Roteamento reentrante (uma estratégia roteando a partir de uma lane): eventos da própria lane
+ * rodam inline. Um {@code route} síncrono para outra lane é rejeitado com
+ * {@link IllegalStateException}, pois a lane ficaria bloqueada esperando a outra, e duas lanes
+ * fazendo isso entre si nunca terminariam; nesse caso use {@code routeAsync}, que apenas enfileira
+ * e, a partir de uma lane, nunca bloqueia na admissão.
+ */
+public class PartitionedEventRouter extends EventRouter implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+
+    private static final ThreadLocal<Integer> CURRENT_LANE = new ThreadLocal<>();
+
+    private final AggregateKeyExtractor keyExtractor;
+    private final ExecutorService[] lanes;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final OverflowPolicy overflowPolicy;
+
+    public PartitionedEventRouter(StrategySelector selector, AggregateKeyExtractor keyExtractor, int laneCount) {
+        this(selector, keyExtractor, laneCount, DEFAULT_MAX_IN_FLIGHT, OverflowPolicy.BLOCK);
+    }
+
+    public PartitionedEventRouter(StrategySelector selector,
+                                  AggregateKeyExtractor keyExtractor,
+                                  int laneCount,
+                                  int maxInFlight,
+                                  OverflowPolicy overflowPolicy) {
+        super(selector);
+        if (laneCount <= 0) {
+            throw new IllegalArgumentException("laneCount must be positive: " + laneCount);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.keyExtractor = keyExtractor;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.overflowPolicy = overflowPolicy;
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            int lane = i;
+            // admission is bounded by the semaphore, so a lane queue never holds more than maxInFlight tasks
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(maxInFlight),
+                    runnable -> {
+                        Thread thread = new Thread(() -> {
+                            CURRENT_LANE.set(lane);
+                            runnable.run();
+                        }, "event-lane-" + lane);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    @Override
+    public void route(List<Event> events) {
+        for (Event event : events) {
+            checkSynchronous(laneOf(event));
+        }
+        awaitAll(submitByLane(events));
+    }
+
+    @Override
+    public void route(Event event) {
+        int lane = laneOf(event);
+        checkSynchronous(lane);
+        awaitAll(List.of(submit(lane, 1, () -> dispatch(event))));
+    }
+
+    @Override
+    public CompletableFuture<Void> routeAsync(Event event) {
+        return submit(laneOf(event), 1, () -> dispatch(event));
+    }
+
+    @Override
+    public CompletableFuture<Void> routeAsync(List<Event> events) {
+        return CompletableFuture.allOf(submitByLane(events).toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Índice da lane responsável pelo evento.
+     *
+     * @param event evento
+     * @return lane no intervalo {@code [0, laneCount)}
+     */
+    public int laneOf(Event event) {
+        Object key = keyExtractor.keyOf(event);
+        int hash = key != null ? key.hashCode() : event.eventId().hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * @return eventos aceitos e ainda não concluídos
+     */
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private static void checkSynchronous(int lane) {
+        Integer current = CURRENT_LANE.get();
+        if (current != null && current != lane) {
+            throw new IllegalStateException("Synchronous route from lane " + current + " to lane " + lane
+                    + " would block one lane on another; use routeAsync from a strategy");
+        }
+    }
+
+    private List<CompletableFuture<Void>> submitByLane(List<Event> events) {
+        List<List<Event>> byLane = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            byLane.add(new ArrayList<>());
+        }
+        for (Event event : events) {
+            byLane.get(laneOf(event)).add(event);
+        }
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            List<Event> laneEvents = byLane.get(i);
+            if (!laneEvents.isEmpty()) {
+                pending.add(submit(i, laneEvents.size(), () -> dispatchBatch(laneEvents)));
+            }
+        }
+        return pending;
+    }
+
+    private CompletableFuture<Void> submit(int lane, int eventCount, Runnable work) {
+        // re-entrant routing from the same lane must run inline, otherwise it would wait on itself
+        Integer current = CURRENT_LANE.get();
+        if (current != null && current == lane) {
+            return runInline(work);
+        }
+
+        int permits = Math.min(eventCount, maxInFlight);
+        if (!admit(permits)) {
+            // running another lane's event here would overtake that lane's queue
+            if (overflowPolicy == OverflowPolicy.CALLER_RUNS && current == null) {
+                return runInline(work);
+            }
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Router saturated: " + inFlight() + " events in flight (max " + maxInFlight + ")"));
+        }
+
+        try {
+            return CompletableFuture.runAsync(work, lanes[lane])
+                    .whenComplete((ignored, error) -> inFlight.release(permits));
+        } catch (RejectedExecutionException e) {
+            // lane already shut down
+            inFlight.release(permits);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean admit(int permits) {
+        // a lane waiting for permits held by tasks queued behind it would never get them
+        if (overflowPolicy != OverflowPolicy.BLOCK || CURRENT_LANE.get() != null) {
+            return inFlight.tryAcquire(permits);
+        }
+        try {
+            inFlight.acquire(permits);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static CompletableFuture<Void> runInline(Runnable work) {
+        try {
+            work.run();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> pending) {
+        RuntimeException failure = null;
+        for (CompletableFuture<Void> future : pending) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    Throwable cause = e.getCause();
+                    failure = cause instanceof RuntimeException re ? re : new IllegalStateException(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                if (!lane.awaitTermination(5, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ExecutorService lane : lanes) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Roteador de alta vazão baseado em um ring buffer pré-alocado (estilo disruptor).
+ *
+ * Produtores reservam uma sequência com um contador atômico, copiam o evento para o slot
+ * correspondente e o publicam; uma única thread consumidora percorre as sequências em ordem
+ * e despacha os eventos. Não há filas nem locks: a coordenação é feita apenas por sequências
+ * e pela {@link WaitStrategy} configurada.
+ *
+ * O contrato de {@code route} é mantido: a chamada só retorna quando o(s) evento(s) terminaram,
+ * relançando a primeira falha. Em regime estacionário {@code route} não aloca: slots são
+ * reutilizados e cada thread produtora reaproveita o seu objeto de conclusão.
+ * Em um lote, após a primeira falha os eventos restantes do mesmo lote são ignorados.
+ */
+public class RingBufferEventRouter extends EventRouter implements AutoCloseable {
+
+    public static final int DEFAULT_SIZE = 1024;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final ThreadLocal<Completion> completions = ThreadLocal.withInitial(Completion::new);
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    private RingBufferEventRouter(StrategySelector selector, int size, WaitStrategy waitStrategy) {
+        super(selector);
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a power of two: " + size);
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i - size);
+        }
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+        this.consumer = new Thread(this::consume, "event-ring-consumer");
+        this.consumer.setDaemon(true);
+    }
+
+    /**
+     * Cria o roteador e inicia a sua thread consumidora.
+     *
+     * @param size quantidade de slots, potência de dois
+     */
+    public static RingBufferEventRouter start(StrategySelector selector, int size, WaitStrategy waitStrategy) {
+        RingBufferEventRouter router = new RingBufferEventRouter(selector, size, waitStrategy);
+        router.consumer.start();
+        return router;
+    }
+
+    @Override
+    public void route(Event event) {
+        if (Thread.currentThread() == consumer) {
+            dispatch(event);
+            return;
+        }
+        Completion completion = completions.get();
+        completion.reset(1);
+        publish(event, completion);
+        await(completion);
+    }
+
+    @Override
+    public void route(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (Thread.currentThread() == consumer) {
+            dispatchBatch(events);
+            return;
+        }
+        Completion completion = completions.get();
+        completion.reset(events.size());
+        for (Event event : events) {
+            publish(event, completion);
+        }
+        await(completion);
+    }
+
+    @Override
+    public CompletableFuture<Void> routeAsync(Event event) {
+        return routeAsync(List.of(event));
+    }
+
+    @Override
+    public CompletableFuture<Void> routeAsync(List<Event> events) {
+        if (events.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (Thread.currentThread() == consumer) {
+            return super.routeAsync(events);
+        }
+        Completion completion = new Completion();
+        completion.future = new CompletableFuture<>();
+        completion.reset(events.size());
+        try {
+            for (Event event : events) {
+                publish(event, completion);
+            }
+        } catch (RejectedExecutionException e) {
+            completion.future.completeExceptionally(e);
+        }
+        return completion.future;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    private void publish(Event event, Completion completion) {
+        long sequence = claimSequence.getAndIncrement();
+        Slot slot = slots[(int) sequence & mask];
+
+        // the slot is free once the consumer released the sequence one lap behind
+        long wrapPoint = sequence - slots.length;
+        int attempt = 0;
+        while (slot.released != wrapPoint) {
+            if (!running) {
+                throw new RejectedExecutionException("Ring buffer router is closed");
+            }
+            waitStrategy.idle(attempt++);
+        }
+
+        slot.event = event;
+        slot.completion = completion;
+        slot.published = sequence;
+    }
+
+    private void await(Completion completion) {
+        int attempt = 0;
+        while (completion.remaining != 0) {
+            if (!running) {
+                throw new RejectedExecutionException("Ring buffer router is closed");
+            }
+            waitStrategy.idle(attempt++);
+        }
+        RuntimeException error = completion.error;
+        if (error != null) {
+            completion.error = null;
+            throw error;
+        }
+    }
+
+    /**
+     * Laço da thread consumidora. Qualquer falha de uma estratégia, inclusive um {@link Error}, vai
+     * para a conclusão do evento; se a própria thread terminar de forma anormal, o roteador é
+     * fechado para que produtores e chamadores em espera falhem em vez de girar para sempre.
+     */
+    private void consume() {
+        long next = 0;
+        int attempt = 0;
+        try {
+            while (true) {
+                Slot slot = slots[(int) next & mask];
+                if (slot.published != next) {
+                    if (!running) {
+                        return;
+                    }
+                    waitStrategy.idle(attempt++);
+                    continue;
+                }
+                attempt = 0;
+
+                Event event = slot.event;
+                Completion completion = slot.completion;
+                slot.event = null;
+                slot.completion = null;
+                slot.released = next;
+                next++;
+
+                if (completion.error == null) {
+                    try {
+                        dispatch(event);
+                    } catch (RuntimeException e) {
+                        completion.error = e;
+                    } catch (Throwable t) {
+                        completion.error = new IllegalStateException("Event dispatch failed: " + t, t);
+                    }
+                }
+                completion.complete();
+            }
+        } finally {
+            running = false;
+            failPending(next);
+        }
+    }
+
+    /**
+     * Completa com erro os lotes assíncronos ainda publicados no ring quando o consumidor para.
+     */
+    private void failPending(long next) {
+        for (int i = 0; i < slots.length; i++) {
+            Slot slot = slots[(int) (next + i) & mask];
+            Completion completion = slot.completion;
+            if (slot.published >= next && completion != null && completion.future != null) {
+                completion.future.completeExceptionally(new RejectedExecutionException("Ring buffer router is closed"));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            consumer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Posição do ring. {@code published} e {@code released} são as únicas barreiras entre
+     * produtores e consumidor; os demais campos são lidos/escritos entre elas.
+     */
+    private static final class Slot {
+        Event event;
+        Completion completion;
+        volatile long published = -1;
+        volatile long released;
+
+        Slot(long released) {
+            this.released = released;
+        }
+    }
+
+    /**
+     * Conclusão de uma chamada (evento único ou lote). {@code remaining} só é decrementado pela
+     * thread consumidora, portanto uma escrita volátil simples basta.
+     */
+    private static final class Completion {
+        volatile int remaining;
+        RuntimeException error;
+        CompletableFuture<Void> future;
+
+        void reset(int count) {
+            this.error = null;
+            this.remaining = count;
+        }
+
+        void complete() {
+            int left = remaining - 1;
+            remaining = left;
+            if (left == 0 && future != null) {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(null);
+                }
+            }
+        }
+    }
+}
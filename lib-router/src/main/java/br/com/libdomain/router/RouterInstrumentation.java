@@ -0,0 +1,30 @@
+package br.com.libdomain.router;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.strategy.EventStrategy;
+
+/**
+ * Ganchos de instrumentação do caminho de roteamento, acionados por
+ * {@link InstrumentedStrategySelector} e {@link InstrumentedStrategy}.
+ * Implementações devem ser thread-safe e baratas: são chamadas para cada evento.
+ */
+public interface RouterInstrumentation {
+
+    /**
+     * Chamado após {@link StrategySelector#selectAll(Event)}.
+     *
+     * @param event         evento roteado
+     * @param strategyCount quantidade de estratégias selecionadas (0 = seleção vazia)
+     */
+    void selected(Event event, int strategyCount);
+
+    /**
+     * Chamado após a execução de uma estratégia.
+     *
+     * @param strategy     estratégia executada
+     * @param eventCount   eventos processados na chamada (1 para {@code execute}, N para {@code executeBatch})
+     * @param elapsedNanos duração total da chamada
+     * @param failed       se a estratégia lançou exceção
+     */
+    void executed(EventStrategy strategy, int eventCount, long elapsedNanos, boolean failed);
+}
@@ -0,0 +1,59 @@
+package br.com.libdomain.router;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Como as threads do {@link RingBufferEventRouter} aguardam enquanto não há progresso
+ * (slot livre, evento publicado ou evento concluído).
+ */
+public enum WaitStrategy {
+
+    /**
+     * Laço ativo com {@link Thread#onSpinWait()}: menor latência, consome um núcleo inteiro.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * Gira por alguns ciclos e depois cede a CPU com {@link Thread#yield()}.
+     */
+    YIELD {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    /**
+     * Gira, cede a CPU e por fim dorme com {@link LockSupport#parkNanos(long)}: menor consumo de CPU,
+     * maior latência quando ocioso.
+     */
+    PARK {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES * 2) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 10_000L;
+
+    /**
+     * @param attempt número de tentativas sem progresso desde a última vez que a condição foi satisfeita
+     */
+    abstract void idle(int attempt);
+}
@@ -0,0 +1,156 @@
+package br.com.libdomain.router.metrics;
+
+import br.com.libdomain.model.Event;
+import br.com.libdomain.router.RouterInstrumentation;
+import br.com.libdomain.strategy.EventStrategy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentação padrão do roteador, utilizável sem Spring.
+ * Mantém contadores por tipo de evento, contadores e histogramas de latência por estratégia
+ * e o total de seleções vazias. Todas as estruturas são lock-free na gravação.
+ *
+ * Os tipos de evento vêm de fora do sistema, então só os tipos conhecidos (informados na
+ * construção) têm série própria; tipos nulos ou desconhecidos caem em {@link #OTHER_TYPE}, e o
+ * número de séries por tipo fica fixo.
+ */
+public class RoutingMetrics implements RouterInstrumentation {
+
+    public static final String OTHER_TYPE = "other";
+
+    /**
+     * Notificado das séries de tipo (fixas, ao registrar o listener) e na primeira vez que uma
+     * estratégia aparece, permitindo registrar medidores dinamicamente (ex: Micrometer).
+     */
+    public interface SeriesListener {
+        void typeAdded(String type, TypeStats stats);
+
+        void strategyAdded(String strategy, StrategyStats stats);
+    }
+
+    public static final class TypeStats {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder emptySelections = new LongAdder();
+
+        public long events() {
+            return events.sum();
+        }
+
+        public long emptySelections() {
+            return emptySelections.sum();
+        }
+    }
+
+    public static final class StrategyStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        public long executions() {
+            return executions.sum();
+        }
+
+        public long failures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return latência por execução (um evento, ou um lote inteiro como uma única amostra), em nanossegundos
+         */
+        public LatencyHistogram latency() {
+            return latency;
+        }
+    }
+
+    private final Map<String, TypeStats> byType;
+    private final TypeStats other;
+    private final Map<EventStrategy, StrategyStats> byStrategy = new ConcurrentHashMap<>();
+    private final Map<String, StrategyStats> byStrategyName = new ConcurrentHashMap<>();
+    private final LongAdder emptySelections = new LongAdder();
+    private final CopyOnWriteArrayList<SeriesListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param knownTypes tipos de evento com série própria; os demais são contados em {@link #OTHER_TYPE}
+     */
+    public RoutingMetrics(Set<String> knownTypes) {
+        Map<String, TypeStats> types = new HashMap<>();
+        for (String type : knownTypes) {
+            types.put(type, new TypeStats());
+        }
+        this.other = types.computeIfAbsent(OTHER_TYPE, type -> new TypeStats());
+        this.byType = Map.copyOf(types);
+    }
+
+    @Override
+    public void selected(Event event, int strategyCount) {
+        String type = event.type();
+        TypeStats stats = type != null ? byType.get(type) : null;
+        if (stats == null) {
+            stats = other;
+        }
+        stats.events.increment();
+        if (strategyCount == 0) {
+            stats.emptySelections.increment();
+            emptySelections.increment();
+        }
+    }
+
+    @Override
+    public void executed(EventStrategy strategy, int eventCount, long elapsedNanos, boolean failed) {
+        StrategyStats stats = byStrategy.get(strategy);
+        if (stats == null) {
+            stats = byStrategy.computeIfAbsent(strategy, s ->
+                    byStrategyName.computeIfAbsent(nameOf(s), name -> {
+                        StrategyStats created = new StrategyStats();
+                        listeners.forEach(listener -> listener.strategyAdded(name, created));
+                        return created;
+                    }));
+        }
+        stats.executions.add(eventCount);
+        if (failed) {
+            stats.failures.add(eventCount);
+        }
+        // a batch is one sample: averaging it over its events would hide the slow ones
+        stats.latency.record(elapsedNanos);
+    }
+
+    /**
+     * Registra um listener e o notifica imediatamente das séries já existentes.
+     *
+     * @param listener listener de novas séries
+     */
+    public void addListener(SeriesListener listener) {
+        listeners.add(listener);
+        byType.forEach(listener::typeAdded);
+        byStrategyName.forEach(listener::strategyAdded);
+    }
+
+    public long emptySelections() {
+        return emptySelections.sum();
+    }
+
+    /**
+     * @return estatísticas por tipo conhecido, mais {@link #OTHER_TYPE}
+     */
+    public Map<String, TypeStats> types() {
+        return byType;
+    }
+
+    /**
+     * @return estatísticas por nome de estratégia (nome simples da classe)
+     */
+    public Map<String, StrategyStats> strategies() {
+        return Map.copyOf(byStrategyName);
+    }
+
+    static String nameOf(EventStrategy strategy) {
+        String simpleName = strategy.getClass().getSimpleName();
+        return simpleName.isEmpty() ? strategy.getClass().getName() : simpleName;
+    }
+}